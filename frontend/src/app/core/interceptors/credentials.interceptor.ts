@@ -0,0 +1,6 @@
+import { HttpInterceptorFn } from '@angular/common/http';
+
+// La API esta en otro origen: sin credenciales el navegador descarta la cookie con la que el backend
+// manda a la base primaria las lecturas que siguen a una escritura (papeleria-primaria).
+export const credentialsInterceptor: HttpInterceptorFn = (req, next) =>
+  next(req.clone({ withCredentials: true }));
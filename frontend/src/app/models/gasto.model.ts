@@ -1,3 +1,5 @@
+import { Page } from '../core/types/page';
+
 export interface Gasto {
   id: number;
   monto: number;
@@ -5,6 +7,11 @@ export interface Gasto {
   fecha: string;
 }
 
+export interface GastoPageResponse {
+  gastos: Page<Gasto>;
+  totalGeneral: number;
+}
+
 export type CrearGastoRequest = Pick<Gasto, 'monto' | 'descripcion'>;
 
 export type ActualizarGastoRequest = CrearGastoRequest;
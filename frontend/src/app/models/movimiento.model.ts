@@ -1,4 +1,4 @@
-export type MovimientoTipo = 'INGRESO' | 'SALIDA' | string;
+export type MovimientoTipo = 'INGRESO' | 'AJUSTE' | 'VENTA' | 'EDICION_VENTA' | 'ANULACION_VENTA' | string;
 
 export interface MovimientoResponse {
   id: number;
@@ -8,4 +8,5 @@ export interface MovimientoResponse {
   tipo: MovimientoTipo;
   fechaMovimiento: string;
   observacion: string | null;
+  ventaId: number | null;
 }
@@ -29,3 +29,10 @@ export interface MovimientoEntradaProductoRequest {
 export interface MovimientoEntradaMasivaRequest {
   movimientos: MovimientoEntradaProductoRequest[];
 }
+
+export interface IngresoMasivoResponse {
+  productos: number;
+  movimientos: number;
+  unidades: number;
+  productoIds: number[];
+}
@@ -78,7 +78,7 @@ export class ProductosComponent implements OnInit {
     hasta: '',
   };
 
-  public tiposMovimiento: MovimientoTipo[] = ['INGRESO'];
+  public tiposMovimiento: MovimientoTipo[] = ['INGRESO', 'AJUSTE', 'VENTA', 'EDICION_VENTA', 'ANULACION_VENTA'];
 
   private fb = inject(FormBuilder);
   formularioProducto: FormGroup;
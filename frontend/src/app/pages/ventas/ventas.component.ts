@@ -19,7 +19,7 @@ import { ApiErrorService } from '../../core/services/api-error.service';
 import { MensajeService } from '../../services/mensaje.service';
 import { VentaRequest, VentaResponse } from '../../models/venta.model';
 import { VentaService } from '../../services/venta.service';
-import { ActualizarGastoRequest, CrearGastoRequest, Gasto } from '../../models/gasto.model';
+import { ActualizarGastoRequest, CrearGastoRequest, Gasto, GastoPageResponse } from '../../models/gasto.model';
 import { GastoService } from '../../services/gasto.service';
 
 @Component({
@@ -101,6 +101,9 @@ export class VentasComponent implements OnInit {
   public creandoGasto = false;
   public gastoSeleccionado: Gasto | null = null;
   public totalGastos = 0;
+  public indexGastos = 0;
+  public sizeGastos = 20;
+  public totalElementosGastos = 0;
   public gastoAEliminar: Gasto | null = null;
   public eliminandoGasto = false;
 
@@ -181,10 +184,11 @@ export class VentasComponent implements OnInit {
       desde: this.filtrosGastos.desde,
       hasta: this.filtrosGastos.hasta,
     };
-    this.gastoService.listar(filtros).subscribe({
-      next: (gastos: Gasto[]) => {
-        this.gastos = gastos;
-        this.totalGastos = gastos.reduce((total, gasto) => total + Number(gasto.monto ?? 0), 0);
+    this.gastoService.listar(this.indexGastos, this.sizeGastos, filtros).subscribe({
+      next: (respuesta: GastoPageResponse) => {
+        this.gastos = respuesta.gastos.content;
+        this.totalElementosGastos = respuesta.gastos.totalElements;
+        this.totalGastos = Number(respuesta.totalGeneral ?? 0);
         this.cargandoGastos = false;
       },
       error: (error: unknown) => {
@@ -192,6 +196,7 @@ export class VentasComponent implements OnInit {
           contextMessage: 'Error al cargar los gastos.',
         });
         this.gastos = [];
+        this.totalElementosGastos = 0;
         this.totalGastos = 0;
         this.cargandoGastos = false;
       },
@@ -344,11 +349,19 @@ export class VentasComponent implements OnInit {
   }
 
   public aplicarFiltrosGastos(): void {
+    this.indexGastos = 0;
     this.cargarGastos();
   }
 
   public limpiarFiltrosGastos(): void {
     this.filtrosGastos = { nombre: '', desde: '', hasta: '' };
+    this.indexGastos = 0;
+    this.cargarGastos();
+  }
+
+  public cambiarPaginaGastos(event: PageEvent): void {
+    this.indexGastos = event.pageIndex;
+    this.sizeGastos = event.pageSize;
     this.cargarGastos();
   }
 
@@ -1,16 +1,20 @@
 import { Injectable, inject } from '@angular/core';
-import { HttpClient, HttpParams, HttpResponse } from '@angular/common/http';
-import { map, Observable } from 'rxjs';
+import { HttpClient, HttpParams } from '@angular/common/http';
+import { Observable } from 'rxjs';
 import { environment } from '../../environments/environment';
-import { ActualizarGastoRequest, CrearGastoRequest, Gasto } from '../models/gasto.model';
+import { ActualizarGastoRequest, CrearGastoRequest, Gasto, GastoPageResponse } from '../models/gasto.model';
 
 @Injectable({ providedIn: 'root' })
 export class GastoService {
   private http = inject(HttpClient);
   private apiUrl = `${environment.apiUrl}/gastos`;
 
-  listar(filtros?: { nombre?: string; desde?: string; hasta?: string }): Observable<Gasto[]> {
-    let params = new HttpParams();
+  listar(
+    page: number,
+    size: number,
+    filtros?: { nombre?: string; desde?: string; hasta?: string }
+  ): Observable<GastoPageResponse> {
+    let params = new HttpParams().set('page', page.toString()).set('size', size.toString());
     if (filtros) {
       Object.entries(filtros).forEach(([key, value]) => {
         if (value !== undefined && value !== null && value !== '') {
@@ -19,14 +23,7 @@ export class GastoService {
       });
     }
 
-    return this.http.get<Gasto[]>(this.apiUrl, { observe: 'response', params }).pipe(
-      map((response: HttpResponse<Gasto[]>) => {
-        if (response.status === 204 || !response.body) {
-          return [];
-        }
-        return response.body;
-      })
-    );
+    return this.http.get<GastoPageResponse>(this.apiUrl, { params });
   }
 
   obtenerPorId(id: number): Observable<Gasto> {
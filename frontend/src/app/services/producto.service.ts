@@ -1,7 +1,12 @@
 import { Injectable, inject } from '@angular/core';
 import { HttpClient, HttpParams, HttpResponse } from '@angular/common/http';
 import { map, Observable } from 'rxjs';
-import { MovimientoEntradaMasivaRequest, ProductoRequest, ProductoResponse } from '../models/producto.model';
+import {
+  IngresoMasivoResponse,
+  MovimientoEntradaMasivaRequest,
+  ProductoRequest,
+  ProductoResponse,
+} from '../models/producto.model';
 import { MovimientoResponse, MovimientoTipo } from '../models/movimiento.model';
 import { environment } from '../../environments/environment';
 import { Page } from '../core/types/page';
@@ -72,8 +77,10 @@ export class ProductoService {
     return this.http.patch<ProductoResponse>(`${this.apiUrl}/${id}/agregar`, body);
   }
 
-  actualizarStockMasivo(request: MovimientoEntradaMasivaRequest): Observable<ProductoResponse[]> {
-    return this.http.patch<ProductoResponse[]>(`${this.apiUrl}/agregar-masivo`, request);
+  actualizarStockMasivo(request: MovimientoEntradaMasivaRequest): Observable<IngresoMasivoResponse> {
+    return this.http.patch<IngresoMasivoResponse>(`${this.apiUrl}/agregar-masivo`, request, {
+      params: { resumen: true },
+    });
   }
 
   obtenerMovimientos(
@@ -0,0 +1,53 @@
+package com.papeleria.carga;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.OptionalDouble;
+import java.util.Properties;
+
+/** Propiedades de carga.properties, sobreescritas por argumentos clave=valor. */
+final class ConfiguracionCarga {
+
+    private final Properties propiedades = new Properties();
+
+    ConfiguracionCarga(String[] args) throws IOException {
+        try (InputStream entrada = ConfiguracionCarga.class.getResourceAsStream("/carga.properties")) {
+            if (entrada != null) {
+                propiedades.load(entrada);
+            }
+        }
+        for (String argumento : args) {
+            int separador = argumento.indexOf('=');
+            if (separador <= 0) {
+                throw new IllegalArgumentException("Argumento invalido, se espera clave=valor: " + argumento);
+            }
+            propiedades.setProperty(argumento.substring(0, separador).trim(), argumento.substring(separador + 1).trim());
+        }
+    }
+
+    String texto(String clave) {
+        String valor = propiedades.getProperty(clave);
+        if (valor == null || valor.isBlank()) {
+            throw new IllegalArgumentException("Falta la propiedad " + clave);
+        }
+        return valor;
+    }
+
+    int entero(String clave) {
+        return Integer.parseInt(texto(clave));
+    }
+
+    int entero(String clave, int defecto) {
+        String valor = propiedades.getProperty(clave);
+        return valor == null || valor.isBlank() ? defecto : Integer.parseInt(valor.trim());
+    }
+
+    boolean booleano(String clave) {
+        return Boolean.parseBoolean(propiedades.getProperty(clave, "false").trim());
+    }
+
+    OptionalDouble presupuesto(String clave) {
+        String valor = propiedades.getProperty("presupuesto." + clave);
+        return valor == null || valor.isBlank() ? OptionalDouble.empty() : OptionalDouble.of(Double.parseDouble(valor));
+    }
+}
@@ -0,0 +1,412 @@
+package com.papeleria.carga;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.papeleria.PapeleriaApplication;
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.OptionalDouble;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.flywaydb.core.Flyway;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * Prueba de carga del backend completo. Levanta la aplicacion sobre una H2 en memoria en modo MySQL con las
+ * migraciones de Flyway, carga el catalogo de sql.sql por la API y manda trafico mixto de punto de venta desde
+ * varios hilos. Informa rendimiento, latencias p50/p99, sentencias SQL y tiempo JDBC por peticion de cada endpoint,
+ * junto con las peticiones que repitieron una sentencia (posible N+1), y termina con codigo 1 si se excede alguno de
+ * los presupuestos de carga.properties.
+ */
+public final class PruebaCarga {
+
+    private static final Pattern FILA_CATALOGO =
+            Pattern.compile("\\('([^']*)', '([^']*)', 1, NOW\\(\\), '([^']*)', (\\d+), (\\d+), (\\d+)\\)");
+
+    private static final String URL_PRIMARIA = "jdbc:h2:mem:carga;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1";
+    private static final String URL_REPLICA =
+            "jdbc:h2:mem:carga-replica;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1";
+
+    private final ConfiguracionCarga configuracion;
+    private final HttpClient cliente = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private String base;
+    private List<Long> productoIds;
+    private List<Long> vendibles;
+    private List<String> prefijos;
+
+    private PruebaCarga(ConfiguracionCarga configuracion) {
+        this.configuracion = configuracion;
+    }
+
+    public static void main(String[] args) throws Exception {
+        ConfiguracionCarga configuracion = new ConfiguracionCarga(args);
+        // Devtools reinicia la aplicacion en otro class loader si arranca desde main.
+        System.setProperty("spring.devtools.restart.enabled", "false");
+
+        int codigo;
+        boolean replica = configuracion.booleano("carga.replica");
+        if (replica) {
+            Flyway.configure().dataSource(URL_REPLICA, "sa", "").load().migrate();
+        }
+        try (ConfigurableApplicationContext contexto = iniciarAplicacion(replica)) {
+            PruebaCarga prueba = new PruebaCarga(configuracion);
+            prueba.base = "http://localhost:" + ((WebServerApplicationContext) contexto).getWebServer().getPort();
+            prueba.cargarCatalogo(replica);
+            codigo = prueba.ejecutar(contexto.getBean(SqlPorEndpoint.class));
+        }
+        System.exit(codigo);
+    }
+
+    private static ConfigurableApplicationContext iniciarAplicacion(boolean replica) {
+        // Como argumentos y no como properties(): estas tienen que ganarle a application.properties.
+        List<String> argumentos = new ArrayList<>(List.of("--server.port=0",
+                "--spring.datasource.url=" + URL_PRIMARIA,
+                "--spring.datasource.driver-class-name=org.h2.Driver",
+                "--spring.datasource.username=sa",
+                "--spring.datasource.password=",
+                "--spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+                "--spring.jpa.show-sql=false",
+                "--spring.jpa.properties.hibernate.format_sql=false",
+                "--spring.main.banner-mode=off",
+                "--logging.level.root=WARN"));
+        if (replica) {
+            argumentos.add("--papeleria.datasource.replicas=" + URL_REPLICA);
+        }
+        return new SpringApplicationBuilder(PapeleriaApplication.class, SqlPorEndpoint.class)
+                .logStartupInfo(false)
+                .run(argumentos.toArray(String[]::new));
+    }
+
+    // Hace las veces de la replicacion: copia la primaria entera a la replica. Despues la replica queda atrasada
+    // y las lecturas que van a ella no ven las ventas de la prueba.
+    private static void sincronizarReplica() throws IOException, SQLException {
+        Path copia = Files.createTempFile("carga-replica", ".sql");
+        try (Connection primaria = DriverManager.getConnection(URL_PRIMARIA, "sa", "");
+             Connection replica = DriverManager.getConnection(URL_REPLICA, "sa", "");
+             Statement enPrimaria = primaria.createStatement();
+             Statement enReplica = replica.createStatement()) {
+            enPrimaria.execute("SCRIPT TO '" + copia + "'");
+            enReplica.execute("DROP ALL OBJECTS");
+            enReplica.execute("RUNSCRIPT FROM '" + copia + "'");
+        } finally {
+            Files.deleteIfExists(copia);
+        }
+    }
+
+    private void cargarCatalogo(boolean replica) throws IOException, InterruptedException, SQLException {
+        String sql = Files.readString(Path.of(configuracion.texto("carga.catalogo")), StandardCharsets.UTF_8);
+        int stockExtra = configuracion.entero("carga.stock-extra");
+        Set<String> nombres = new HashSet<>();
+        Matcher matcher = FILA_CATALOGO.matcher(sql);
+        while (matcher.find()) {
+            String nombre = matcher.group(3).trim();
+            if (nombre.isEmpty() || !nombres.add(nombre.toLowerCase(Locale.ROOT))) {
+                continue;
+            }
+            Map<String, Object> producto = Map.of(
+                    "categoria", matcher.group(1),
+                    "descripcion", matcher.group(2),
+                    "nombre", nombre,
+                    "precioCompra", Long.parseLong(matcher.group(4)),
+                    "precioVenta", Long.parseLong(matcher.group(5)),
+                    "stock", Integer.parseInt(matcher.group(6)) + stockExtra);
+            HttpResponse<String> respuesta = enviar(HttpRequest.newBuilder(URI.create(base + "/api/productos"))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(producto))));
+            if (respuesta.statusCode() >= 400) {
+                throw new IllegalStateException("No se pudo cargar " + nombre + ": " + respuesta.body());
+            }
+        }
+
+        if (replica) {
+            sincronizarReplica();
+        }
+
+        HttpResponse<String> respuesta = enviar(HttpRequest.newBuilder(URI.create(base + "/api/filtros")).GET());
+        productoIds = new ArrayList<>();
+        vendibles = new ArrayList<>();
+        prefijos = new ArrayList<>();
+        for (JsonNode producto : objectMapper.readTree(respuesta.body()).path("nombresProductos")) {
+            productoIds.add(producto.path("id").asLong());
+            // El catalogo trae productos con precio 0, que la venta rechaza.
+            if (producto.path("precioVenta").asDouble() > 0) {
+                vendibles.add(producto.path("id").asLong());
+            }
+            for (String palabra : producto.path("nombre").asText().toLowerCase(Locale.ROOT).split("\\s+")) {
+                if (palabra.length() >= 3) {
+                    prefijos.add(palabra.substring(0, Math.min(palabra.length(), 3 + prefijos.size() % 3)));
+                }
+            }
+        }
+        System.out.println("Catalogo cargado: " + productoIds.size() + " productos, " + vendibles.size() + " con precio");
+    }
+
+    private int ejecutar(SqlPorEndpoint sqlPorEndpoint) throws Exception {
+        int hilos = configuracion.entero("carga.hilos");
+        long calentamientoNanos = TimeUnit.SECONDS.toNanos(configuracion.entero("carga.calentamiento-segundos"));
+        long duracionNanos = TimeUnit.SECONDS.toNanos(configuracion.entero("carga.duracion-segundos"));
+        Operacion[] mezcla = mezcla();
+
+        long inicio = System.nanoTime();
+        long inicioMedicion = inicio + calentamientoNanos;
+        long fin = inicioMedicion + duracionNanos;
+
+        System.out.printf("Carga: %d hilos, %d s de calentamiento y %d s de medicion%n", hilos,
+                TimeUnit.NANOSECONDS.toSeconds(calentamientoNanos), TimeUnit.NANOSECONDS.toSeconds(duracionNanos));
+        ExecutorService executor = Executors.newFixedThreadPool(hilos);
+        List<Future<Map<Operacion, Registro>>> clientes = new ArrayList<>();
+        for (int i = 0; i < hilos; i++) {
+            long semilla = 31L * i + 7;
+            clientes.add(executor.submit(() -> simularCliente(new SplittableRandom(semilla), mezcla, inicioMedicion, fin)));
+        }
+
+        TimeUnit.NANOSECONDS.sleep(Math.max(0, inicioMedicion - System.nanoTime()));
+        sqlPorEndpoint.reiniciar();
+
+        Map<Operacion, Registro> registros = new EnumMap<>(Operacion.class);
+        for (Future<Map<Operacion, Registro>> resultado : clientes) {
+            resultado.get().forEach((operacion, registro) ->
+                    registros.computeIfAbsent(operacion, clave -> new Registro()).sumar(registro));
+        }
+        executor.shutdown();
+
+        return informar(registros, sqlPorEndpoint.getPorEndpoint(), TimeUnit.NANOSECONDS.toMillis(duracionNanos) / 1000.0);
+    }
+
+    private Map<Operacion, Registro> simularCliente(SplittableRandom random, Operacion[] mezcla, long inicioMedicion,
+                                                    long fin) {
+        Map<Operacion, Registro> registros = new EnumMap<>(Operacion.class);
+        long ahora;
+        while ((ahora = System.nanoTime()) < fin) {
+            Operacion operacion = mezcla[random.nextInt(mezcla.length)];
+            String error;
+            try {
+                HttpResponse<String> respuesta = enviar(peticion(operacion, random));
+                error = respuesta.statusCode() >= 400 ? respuesta.statusCode() + " " + respuesta.body() : null;
+            } catch (IOException ex) {
+                error = ex.toString();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            if (ahora >= inicioMedicion) {
+                registros.computeIfAbsent(operacion, clave -> new Registro())
+                        .registrar(System.nanoTime() - ahora, error);
+            }
+        }
+        return registros;
+    }
+
+    private HttpRequest.Builder peticion(Operacion operacion, SplittableRandom random) {
+        return switch (operacion) {
+            case CHECKOUT -> {
+                int lineas = 1 + random.nextInt(5);
+                Set<Long> elegidos = new HashSet<>();
+                StringBuilder detalles = new StringBuilder();
+                while (elegidos.size() < lineas) {
+                    Long productoId = vendibles.get(random.nextInt(vendibles.size()));
+                    if (elegidos.add(productoId)) {
+                        detalles.append(detalles.isEmpty() ? "" : ",").append("{\"productoId\":").append(productoId)
+                                .append(",\"cantidad\":").append(1 + random.nextInt(3)).append('}');
+                    }
+                }
+                yield HttpRequest.newBuilder(URI.create(base + "/api/ventas"))
+                        .header("Content-Type", "application/json")
+                        .POST(HttpRequest.BodyPublishers.ofString(
+                                "{\"metodoPago\":\"EFECTIVO\",\"detalles\":[" + detalles + "]}"));
+            }
+            case BUSQUEDA -> HttpRequest.newBuilder(URI.create(base + "/api/productos/autocompletar?limite=10&q="
+                    + URLEncoder.encode(prefijos.get(random.nextInt(prefijos.size())), StandardCharsets.UTF_8))).GET();
+            case FILTROS -> HttpRequest.newBuilder(URI.create(base + "/api/filtros")).GET();
+            case VENTAS -> HttpRequest.newBuilder(URI.create(base + "/api/ventas?size=20&sort=fecha,desc")).GET();
+            case MOVIMIENTOS -> HttpRequest.newBuilder(URI.create(base + "/api/movimientos?size=20")).GET();
+            case REPORTES -> {
+                LocalDate hoy = LocalDate.now();
+                yield HttpRequest.newBuilder(URI.create(base + "/api/reportes/generales?fechaInicio="
+                        + hoy.minusDays(30) + "&fechaFin=" + hoy)).GET();
+            }
+            case INGRESO -> HttpRequest.newBuilder(URI.create(base + "/api/productos/"
+                            + productoIds.get(random.nextInt(productoIds.size())) + "/agregar"))
+                    .header("Content-Type", "application/json")
+                    .method("PATCH", HttpRequest.BodyPublishers.ofString(
+                            "{\"cantidad\":" + (1 + random.nextInt(20)) + ",\"observacion\":\"Prueba de carga\"}"));
+        };
+    }
+
+    private HttpResponse<String> enviar(HttpRequest.Builder peticion) throws IOException, InterruptedException {
+        return cliente.send(peticion.timeout(Duration.ofSeconds(30)).build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    // Cada operacion aparece tantas veces como su peso, asi elegir una al azar respeta la mezcla.
+    private Operacion[] mezcla() {
+        List<Operacion> mezcla = new ArrayList<>();
+        for (Operacion operacion : Operacion.values()) {
+            int peso = configuracion.entero("carga.mezcla." + operacion.nombre, 0);
+            for (int i = 0; i < peso; i++) {
+                mezcla.add(operacion);
+            }
+        }
+        if (mezcla.isEmpty()) {
+            throw new IllegalArgumentException("La mezcla de trafico no tiene ninguna operacion con peso");
+        }
+        return mezcla.toArray(Operacion[]::new);
+    }
+
+    private int informar(Map<Operacion, Registro> registros, Map<String, SqlPorEndpoint.Totales> sqlPorEndpoint,
+                         double segundos) {
+        List<String> excedidos = new ArrayList<>();
+        long peticiones = 0;
+        long errores = 0;
+        long conRepetidas = 0;
+
+        System.out.printf("%n%-11s %10s %8s %9s %9s %9s %9s %9s %9s %6s%n", "endpoint", "peticiones", "errores",
+                "pet/s", "p50 ms", "p99 ms", "max ms", "sql/pet", "jdbc ms", "n+1");
+        for (Map.Entry<Operacion, Registro> entrada : registros.entrySet()) {
+            Operacion operacion = entrada.getKey();
+            Registro registro = entrada.getValue();
+            long[] latencias = registro.latenciasOrdenadas();
+            double p50 = percentilMs(latencias, 0.50);
+            double p99 = percentilMs(latencias, 0.99);
+            SqlPorEndpoint.Totales sql = sqlPorEndpoint.get(operacion.endpoint);
+            double sqlPorPeticion = sql != null ? sql.sentenciasPorPeticion() : 0;
+            long repetidas = sql != null ? sql.peticionesConRepetidas() : 0;
+            peticiones += latencias.length;
+            errores += registro.errores;
+            conRepetidas += repetidas;
+
+            System.out.printf("%-11s %10d %8d %9.1f %9.1f %9.1f %9.1f %9.1f %9.2f %6d%n", operacion.nombre,
+                    latencias.length, registro.errores, latencias.length / segundos, p50, p99,
+                    percentilMs(latencias, 1.0), sqlPorPeticion, sql != null ? sql.jdbcMsPorPeticion() : 0, repetidas);
+            verificar(excedidos, operacion.nombre + ".p99-ms", p99);
+            verificar(excedidos, operacion.nombre + ".sql-por-peticion", sqlPorPeticion);
+        }
+
+        double rps = peticiones / segundos;
+        double porcentajeErrores = peticiones > 0 ? errores * 100.0 / peticiones : 0;
+        registros.forEach((operacion, registro) -> {
+            if (registro.primerError != null) {
+                System.out.println("primer error de " + operacion.nombre + ": " + registro.primerError);
+            }
+        });
+        System.out.printf("%ntotal: %d peticiones, %.1f pet/s, %.2f %% con error%n", peticiones, rps, porcentajeErrores);
+
+        OptionalDouble rpsMinimo = configuracion.presupuesto("rps-minimo");
+        if (rpsMinimo.isPresent() && rps < rpsMinimo.getAsDouble()) {
+            excedidos.add(String.format(Locale.ROOT, "rps-minimo: %.1f < %.1f", rps, rpsMinimo.getAsDouble()));
+        }
+        verificar(excedidos, "errores-maximo-porcentaje", porcentajeErrores);
+        verificar(excedidos, "n-mas-uno-maximo", conRepetidas);
+
+        if (excedidos.isEmpty()) {
+            System.out.println("Todos los presupuestos se cumplen.");
+            return 0;
+        }
+        System.out.println("Presupuestos excedidos:");
+        excedidos.forEach(excedido -> System.out.println("  - " + excedido));
+        return 1;
+    }
+
+    private void verificar(List<String> excedidos, String clave, double valor) {
+        OptionalDouble limite = configuracion.presupuesto(clave);
+        if (limite.isPresent() && valor > limite.getAsDouble()) {
+            excedidos.add(String.format(Locale.ROOT, "%s: %.1f > %.1f", clave, valor, limite.getAsDouble()));
+        }
+    }
+
+    private static double percentilMs(long[] ordenadas, double percentil) {
+        if (ordenadas.length == 0) {
+            return 0;
+        }
+        int indice = (int) Math.ceil(percentil * ordenadas.length) - 1;
+        return ordenadas[Math.max(0, indice)] / 1_000_000.0;
+    }
+
+    private enum Operacion {
+        CHECKOUT("checkout", "POST /api/ventas"),
+        BUSQUEDA("busqueda", "GET /api/productos/autocompletar"),
+        FILTROS("filtros", "GET /api/filtros"),
+        VENTAS("ventas", "GET /api/ventas"),
+        MOVIMIENTOS("movimientos", "GET /api/movimientos"),
+        REPORTES("reportes", "GET /api/reportes/generales"),
+        INGRESO("ingreso", "PATCH /api/productos/{id}/agregar");
+
+        private final String nombre;
+        private final String endpoint;
+
+        Operacion(String nombre, String endpoint) {
+            this.nombre = nombre;
+            this.endpoint = endpoint;
+        }
+    }
+
+    // Latencias en nanosegundos de un hilo; sin sincronizacion porque cada cliente tiene las suyas.
+    private static final class Registro {
+
+        private long[] latencias = new long[1024];
+        private int cantidad;
+        private long errores;
+        private String primerError;
+
+        void registrar(long nanos, String error) {
+            if (cantidad == latencias.length) {
+                latencias = Arrays.copyOf(latencias, cantidad * 2);
+            }
+            latencias[cantidad++] = nanos;
+            if (error != null) {
+                errores++;
+                if (primerError == null) {
+                    primerError = error.length() > 300 ? error.substring(0, 300) : error;
+                }
+            }
+        }
+
+        void sumar(Registro otro) {
+            for (int i = 0; i < otro.cantidad; i++) {
+                registrar(otro.latencias[i], null);
+            }
+            errores += otro.errores;
+            if (primerError == null) {
+                primerError = otro.primerError;
+            }
+        }
+
+        long[] latenciasOrdenadas() {
+            long[] ordenadas = Arrays.copyOf(latencias, cantidad);
+            Arrays.sort(ordenadas);
+            return ordenadas;
+        }
+    }
+}
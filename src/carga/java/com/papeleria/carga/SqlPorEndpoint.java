@@ -0,0 +1,79 @@
+package com.papeleria.carga;
+
+import com.papeleria.config.ContadorSql;
+import com.papeleria.config.SentenciasPeticion;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+/**
+ * Acumula por endpoint lo que {@link ContadorSql} midio en cada peticion: sentencias SQL, tiempo JDBC y
+ * peticiones en las que alguna forma de sentencia se repitio por encima del umbral (posible N+1). Corre dentro
+ * del filtro de la aplicacion, asi que al terminar la cadena la peticion ya tiene todas sus sentencias.
+ */
+public class SqlPorEndpoint extends OncePerRequestFilter {
+
+    private final Map<String, Totales> porEndpoint = new ConcurrentHashMap<>();
+
+    @Value("${papeleria.sql.umbral-repeticiones:10}")
+    private int umbralRepeticiones;
+
+    public void reiniciar() {
+        porEndpoint.clear();
+    }
+
+    public Map<String, Totales> getPorEndpoint() {
+        return porEndpoint;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            SentenciasPeticion sentencias = SentenciasPeticion.de(request);
+            if (sentencias != null) {
+                Object patron = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+                String endpoint = request.getMethod() + " " + (patron != null ? patron : request.getRequestURI());
+                Totales totales = porEndpoint.computeIfAbsent(endpoint, clave -> new Totales());
+                totales.peticiones.increment();
+                totales.sentencias.add(sentencias.getSentencias());
+                totales.tiempoNanos.add(sentencias.getTiempoNanos());
+                if (!sentencias.repetidas(umbralRepeticiones).isEmpty()) {
+                    totales.conRepetidas.increment();
+                }
+            }
+        }
+    }
+
+    public static class Totales {
+
+        private final LongAdder peticiones = new LongAdder();
+        private final LongAdder sentencias = new LongAdder();
+        private final LongAdder tiempoNanos = new LongAdder();
+        private final LongAdder conRepetidas = new LongAdder();
+
+        public double sentenciasPorPeticion() {
+            long total = peticiones.sum();
+            return total > 0 ? (double) sentencias.sum() / total : 0;
+        }
+
+        public double jdbcMsPorPeticion() {
+            long total = peticiones.sum();
+            return total > 0 ? tiempoNanos.sum() / 1_000_000.0 / total : 0;
+        }
+
+        public long peticionesConRepetidas() {
+            return conRepetidas.sum();
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.papeleria.benchmarks;
+
+import com.papeleria.dtos.DetalleVentaRequest;
+import com.papeleria.dtos.VentaRequest;
+import com.papeleria.models.Venta;
+import com.papeleria.services.venta.VentaService;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * VentaService.crearVenta de punta a punta: carga de productos, descuento de stock por lotes JDBC, guardado de la
+ * venta con sus detalles y asientos del kardex. Cada iteracion empieza con las tablas de ventas vacias. El
+ * calentamiento es largo porque en una maquina de 1 CPU el tiempo sigue bajando hasta el minuto y medio, y se
+ * repite en varios procesos porque una sola JVM da intervalos de error tan grandes como el puntaje.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 20, time = 5)
+@Measurement(iterations = 10, time = 2)
+@Fork(3)
+public class CheckoutBenchmark {
+
+    @Param({"1", "10", "50"})
+    private int lineas;
+
+    private ConfigurableApplicationContext contexto;
+    private VentaService ventaService;
+    private VentaRequest request;
+
+    @Setup(Level.Trial)
+    public void iniciar() {
+        contexto = ContextoAplicacion.iniciar();
+        ventaService = contexto.getBean(VentaService.class);
+
+        List<Long> productoIds = ContextoAplicacion.sembrarProductos(contexto, lineas);
+        List<DetalleVentaRequest> detalles = new ArrayList<>(lineas);
+        for (Long productoId : productoIds) {
+            DetalleVentaRequest detalle = new DetalleVentaRequest();
+            detalle.setProductoId(productoId);
+            detalle.setCantidad(1);
+            detalles.add(detalle);
+        }
+        request = new VentaRequest();
+        request.setMetodoPago("EFECTIVO");
+        request.setDetalles(detalles);
+    }
+
+    @Setup(Level.Iteration)
+    public void vaciarVentas() {
+        ContextoAplicacion.vaciarVentas(contexto);
+    }
+
+    @TearDown(Level.Trial)
+    public void cerrar() {
+        contexto.close();
+    }
+
+    @Benchmark
+    public Venta crearVenta() {
+        return ventaService.crearVenta(request);
+    }
+}
@@ -0,0 +1,104 @@
+package com.papeleria.benchmarks;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Compara dos resultados JSON de JMH (linea base y corrida nueva) benchmark por benchmark, en tiempo y en bytes
+ * asignados por operacion. Termina con codigo 1 si algo empeoro mas que el umbral (10 % por defecto) y, en
+ * tiempo, ademas los intervalos de error de ambas corridas no se tocan: asi el ruido no cuenta como regresion.
+ *
+ * Uso: ComparadorResultados base.json actual.json [umbralPorcentaje]
+ */
+public final class ComparadorResultados {
+
+    private static final String ASIGNACION = "gc.alloc.rate.norm";
+
+    private ComparadorResultados() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Uso: ComparadorResultados base.json actual.json [umbralPorcentaje]");
+            System.exit(2);
+        }
+        double umbral = args.length > 2 ? Double.parseDouble(args[2]) : 10;
+        Map<String, Medicion> base = leer(Path.of(args[0]));
+        Map<String, Medicion> actual = leer(Path.of(args[1]));
+
+        int regresiones = 0;
+        System.out.printf("%-70s %14s %14s %9s %12s %12s %9s%n",
+                "benchmark", "base", "actual", "tiempo", "B/op base", "B/op actual", "memoria");
+        for (Map.Entry<String, Medicion> entrada : actual.entrySet()) {
+            Medicion anterior = base.get(entrada.getKey());
+            Medicion nueva = entrada.getValue();
+            if (anterior == null) {
+                System.out.printf("%-70s %14s %14.3f %s%n", entrada.getKey(), "-", nueva.puntaje(), nueva.unidad());
+                continue;
+            }
+            double cambioTiempo = cambio(anterior.puntaje(), nueva.puntaje());
+            double cambioMemoria = cambio(anterior.bytesPorOperacion(), nueva.bytesPorOperacion());
+            boolean masLento = cambioTiempo > umbral
+                    && nueva.puntaje() - nueva.error() > anterior.puntaje() + anterior.error();
+            boolean regresion = masLento || cambioMemoria > umbral;
+            if (regresion) {
+                regresiones++;
+            }
+            System.out.printf("%-70s %14.3f %14.3f %+8.1f%% %12.0f %12.0f %+8.1f%%%s%n", entrada.getKey(),
+                    anterior.puntaje(), nueva.puntaje(), cambioTiempo, anterior.bytesPorOperacion(),
+                    nueva.bytesPorOperacion(), cambioMemoria, regresion ? "  <-- regresion" : "");
+        }
+
+        if (regresiones > 0) {
+            System.out.println(regresiones + " benchmark(s) empeoraron mas de " + umbral + " %");
+            System.exit(1);
+        }
+    }
+
+    // Todos los modos que usa el modulo son tiempo por operacion, asi que subir es empeorar.
+    private static double cambio(double anterior, double nuevo) {
+        if (anterior <= 0) {
+            return 0;
+        }
+        return (nuevo - anterior) * 100 / anterior;
+    }
+
+    private static Map<String, Medicion> leer(Path archivo) throws IOException {
+        Map<String, Medicion> mediciones = new LinkedHashMap<>();
+        for (JsonNode resultado : new ObjectMapper().readTree(archivo.toFile())) {
+            mediciones.put(clave(resultado), new Medicion(
+                    resultado.path("primaryMetric").path("score").asDouble(),
+                    errorDe(resultado.path("primaryMetric").path("scoreError")),
+                    resultado.path("primaryMetric").path("scoreUnit").asText(),
+                    bytesPorOperacion(resultado.path("secondaryMetrics"))));
+        }
+        return mediciones;
+    }
+
+    // Con una sola iteracion JMH escribe "NaN" como error.
+    private static double errorDe(JsonNode error) {
+        double valor = error.asDouble();
+        return Double.isNaN(valor) ? 0 : valor;
+    }
+
+    private static String clave(JsonNode resultado) {
+        String benchmark = resultado.path("benchmark").asText().replace("com.papeleria.benchmarks.", "");
+        Map<String, String> parametros = new TreeMap<>();
+        resultado.path("params").fields().forEachRemaining(campo -> parametros.put(campo.getKey(), campo.getValue().asText()));
+        return parametros.isEmpty() ? benchmark : benchmark + parametros;
+    }
+
+    // Las versiones viejas de JMH anteponen un punto medio al nombre de las metricas del perfilador.
+    private static double bytesPorOperacion(JsonNode secundarias) {
+        JsonNode metrica = secundarias.has(ASIGNACION) ? secundarias.get(ASIGNACION) : secundarias.get("·" + ASIGNACION);
+        return metrica != null ? metrica.path("score").asDouble() : 0;
+    }
+
+    private record Medicion(double puntaje, double error, String unidad, double bytesPorOperacion) {
+    }
+}
@@ -0,0 +1,63 @@
+package com.papeleria.benchmarks;
+
+import com.papeleria.PapeleriaApplication;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Levanta la aplicacion completa sin servidor web sobre una H2 en memoria en modo MySQL, con el esquema de las
+ * migraciones de Flyway. Los numeros no son los de MySQL, pero si el costo propio de la aplicacion (Hibernate,
+ * lotes JDBC, eventos y mapeos), que es lo que se quiere vigilar entre versiones.
+ */
+final class ContextoAplicacion {
+
+    private ContextoAplicacion() {
+    }
+
+    static ConfigurableApplicationContext iniciar() {
+        return new SpringApplicationBuilder(PapeleriaApplication.class)
+                .web(WebApplicationType.NONE)
+                .logStartupInfo(false)
+                // Como argumentos y no como properties(): estas tienen que ganarle a application.properties.
+                .run("--spring.datasource.url=jdbc:h2:mem:benchmarks;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+                        "--spring.datasource.driver-class-name=org.h2.Driver",
+                        "--spring.datasource.username=sa",
+                        "--spring.datasource.password=",
+                        "--spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+                        "--spring.jpa.show-sql=false",
+                        "--spring.jpa.properties.hibernate.format_sql=false",
+                        "--spring.main.banner-mode=off",
+                        "--spring.devtools.restart.enabled=false",
+                        "--logging.level.root=WARN");
+    }
+
+    /** Inserta productos con stock de sobra para que ninguna iteracion se quede sin unidades. */
+    static List<Long> sembrarProductos(ConfigurableApplicationContext contexto, int cantidad) {
+        JdbcTemplate jdbcTemplate = contexto.getBean(JdbcTemplate.class);
+        for (int i = 0; i < cantidad; i++) {
+            jdbcTemplate.update("insert into productos (nombre, descripcion, precio_compra, precio_venta, stock, "
+                            + "categoria, fecha_registro, estado) values (?, ?, ?, ?, ?, ?, ?, true)",
+                    "Benchmark " + i, "Producto de benchmark", new BigDecimal("1200.00"), new BigDecimal("1850.00"),
+                    1_000_000_000, "Benchmark", LocalDateTime.now());
+        }
+        return jdbcTemplate.queryForList("select id from productos where categoria = 'Benchmark' order by id", Long.class);
+    }
+
+    /**
+     * Borra las ventas, sus detalles, los movimientos y los resumenes diarios. Entre iteraciones deja las tablas
+     * del mismo tamano, para que una venta no cueste mas solo porque ya se registraron miles antes.
+     */
+    static void vaciarVentas(ConfigurableApplicationContext contexto) {
+        JdbcTemplate jdbcTemplate = contexto.getBean(JdbcTemplate.class);
+        jdbcTemplate.update("delete from detalles_venta");
+        jdbcTemplate.update("delete from movimientos");
+        jdbcTemplate.update("delete from ventas");
+        jdbcTemplate.update("delete from resumen_productos_diario");
+        jdbcTemplate.update("delete from resumen_ventas_diario");
+    }
+}
@@ -0,0 +1,95 @@
+package com.papeleria.benchmarks;
+
+import com.papeleria.models.Producto;
+import com.papeleria.models.Venta;
+import com.papeleria.services.producto.ProductoSpecification;
+import com.papeleria.services.venta.VentaSpecification;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Root;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.jpa.domain.Specification;
+
+/**
+ * Armado de los filtros de listados con Specification y su traduccion a un CriteriaQuery de Hibernate, sin
+ * ejecutarlo. Es el trabajo que se repite en cada pagina antes de llegar a la base.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EspecificacionBenchmark {
+
+    private static final LocalDateTime DESDE = LocalDateTime.of(2024, 1, 1, 0, 0);
+    private static final LocalDateTime HASTA = LocalDateTime.of(2024, 1, 31, 23, 59, 59);
+    private static final BigDecimal MINIMO = new BigDecimal("1000");
+    private static final BigDecimal MAXIMO = new BigDecimal("500000");
+
+    private ConfigurableApplicationContext contexto;
+    private EntityManager entityManager;
+
+    @Setup(Level.Trial)
+    public void iniciar() {
+        contexto = ContextoAplicacion.iniciar();
+        entityManager = contexto.getBean(EntityManagerFactory.class).createEntityManager();
+    }
+
+    @TearDown(Level.Trial)
+    public void cerrar() {
+        entityManager.close();
+        contexto.close();
+    }
+
+    @Benchmark
+    public Specification<Venta> construirFiltrosVentas() {
+        return VentaSpecification.filtrosListado("EFECTIVO", DESDE, HASTA, MINIMO, MAXIMO);
+    }
+
+    @Benchmark
+    public Specification<Producto> construirFiltrosProductos() {
+        return filtrosProductos();
+    }
+
+    @Benchmark
+    public CriteriaQuery<Venta> traducirFiltrosVentas() {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Venta> query = cb.createQuery(Venta.class);
+        Root<Venta> root = query.from(Venta.class);
+        return query.where(VentaSpecification.filtrosListado("EFECTIVO", DESDE, HASTA, MINIMO, MAXIMO)
+                .toPredicate(root, query, cb));
+    }
+
+    @Benchmark
+    public CriteriaQuery<Producto> traducirFiltrosProductos() {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Producto> query = cb.createQuery(Producto.class);
+        Root<Producto> root = query.from(Producto.class);
+        return query.where(filtrosProductos().toPredicate(root, query, cb));
+    }
+
+    // La misma composicion que ProductoService.buscarTodos.
+    private Specification<Producto> filtrosProductos() {
+        return Specification.where(ProductoSpecification.hasNombre("cuaderno"))
+                .and(ProductoSpecification.hasCategoria("Escolar"))
+                .and(ProductoSpecification.hasEstado(true));
+    }
+}
@@ -0,0 +1,127 @@
+package com.papeleria.benchmarks;
+
+import com.papeleria.dtos.ProductoResponse;
+import com.papeleria.dtos.VentaResponse;
+import com.papeleria.mappers.producto.ProductoMapper;
+import com.papeleria.mappers.producto.ProductoMapperImpl;
+import com.papeleria.mappers.venta.DetalleVentaMapperImpl;
+import com.papeleria.mappers.venta.VentaMapper;
+import com.papeleria.mappers.venta.VentaMapperImpl;
+import com.papeleria.models.DetalleVenta;
+import com.papeleria.models.Producto;
+import com.papeleria.models.Venta;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+
+/**
+ * Mapeo entidad -> DTO de paginas grandes con los mappers generados por MapStruct. Solo se levantan los mappers,
+ * sin base de datos, para medir unicamente la copia de campos y las listas que se arman.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MapeoBenchmark {
+
+    private static final int DETALLES_POR_VENTA = 3;
+
+    @Param({"100", "1000", "10000"})
+    private int tamano;
+
+    private AnnotationConfigApplicationContext contexto;
+    private VentaMapper ventaMapper;
+    private ProductoMapper productoMapper;
+    private List<Producto> productos;
+    private Page<Venta> ventas;
+
+    @Setup(Level.Trial)
+    public void iniciar() {
+        contexto = new AnnotationConfigApplicationContext(
+                VentaMapperImpl.class, DetalleVentaMapperImpl.class, ProductoMapperImpl.class);
+        ventaMapper = contexto.getBean(VentaMapper.class);
+        productoMapper = contexto.getBean(ProductoMapper.class);
+
+        productos = new ArrayList<>(tamano);
+        for (int i = 0; i < tamano; i++) {
+            productos.add(Producto.builder()
+                    .id((long) i)
+                    .nombre("Producto " + i)
+                    .descripcion("Descripcion del producto " + i)
+                    .precioCompra(new BigDecimal("1200.00"))
+                    .precioVenta(new BigDecimal("1850.00"))
+                    .stock(i % 50)
+                    .stockMinimo(3)
+                    .categoria("Categoria " + i % 12)
+                    .fechaRegistro(LocalDateTime.now())
+                    .estado(true)
+                    .build());
+        }
+
+        List<Venta> contenido = new ArrayList<>(tamano);
+        for (int i = 0; i < tamano; i++) {
+            Venta venta = new Venta();
+            venta.setId((long) i);
+            venta.setFecha(LocalDateTime.now().minusMinutes(i));
+            venta.setMetodoPago(i % 2 == 0 ? "EFECTIVO" : "TRANSFERENCIA");
+            BigDecimal total = BigDecimal.ZERO;
+            for (int j = 0; j < DETALLES_POR_VENTA; j++) {
+                Producto producto = productos.get((i + j) % tamano);
+                DetalleVenta detalle = new DetalleVenta();
+                detalle.setId((long) i * DETALLES_POR_VENTA + j);
+                detalle.setVenta(venta);
+                detalle.setProducto(producto);
+                detalle.setCantidad(j + 1);
+                detalle.setPrecioUnitario(producto.getPrecioVenta());
+                detalle.setCostoUnitario(producto.getPrecioCompra());
+                detalle.setSubtotal(producto.getPrecioVenta().multiply(BigDecimal.valueOf(j + 1)));
+                venta.getDetalles().add(detalle);
+                total = total.add(detalle.getSubtotal());
+            }
+            venta.setTotal(total);
+            contenido.add(venta);
+        }
+        ventas = new PageImpl<>(contenido);
+    }
+
+    @TearDown(Level.Trial)
+    public void cerrar() {
+        contexto.close();
+    }
+
+    /** Como lo hace VentaService.traerTodos: Page.map con el mapper de ventas (incluye los detalles). */
+    @Benchmark
+    public Page<VentaResponse> paginaDeVentas() {
+        return ventas.map(ventaMapper::toResponse);
+    }
+
+    @Benchmark
+    public List<VentaResponse> listaDeVentas() {
+        return ventaMapper.toResponseList(ventas.getContent());
+    }
+
+    @Benchmark
+    public List<ProductoResponse> listaDeProductos() {
+        return productoMapper.toResponseList(productos);
+    }
+}
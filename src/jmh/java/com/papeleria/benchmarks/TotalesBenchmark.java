@@ -0,0 +1,59 @@
+package com.papeleria.benchmarks;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Acumulacion de montos BigDecimal con escala 2, como los totales de ventas y detalles: el ciclo con add de
+ * crearVenta contra el reduce sobre un stream de actualizarVenta y del lote de ventas.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TotalesBenchmark {
+
+    @Param({"10", "1000", "100000"})
+    private int montos;
+
+    private List<BigDecimal> valores;
+
+    @Setup
+    public void iniciar() {
+        SplittableRandom random = new SplittableRandom(42);
+        valores = new ArrayList<>(montos);
+        for (int i = 0; i < montos; i++) {
+            valores.add(BigDecimal.valueOf(random.nextLong(100, 5_000_000), 2));
+        }
+    }
+
+    @Benchmark
+    public BigDecimal cicloConAdd() {
+        BigDecimal total = BigDecimal.ZERO;
+        for (BigDecimal valor : valores) {
+            total = total.add(valor);
+        }
+        return total;
+    }
+
+    @Benchmark
+    public BigDecimal streamReduce() {
+        return valores.stream().reduce(BigDecimal.ZERO, BigDecimal::add);
+    }
+}
@@ -0,0 +1,45 @@
+package com.papeleria.config;
+
+import java.util.concurrent.TimeUnit;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+/**
+ * En desarrollo (papeleria.sql.cabeceras=true, activo con el perfil dev) agrega a cada respuesta cuantas
+ * sentencias SQL hizo la peticion, cuanto tardaron en JDBC y cuantas formas se repitieron por encima del umbral.
+ * Se agregan justo antes de escribir el cuerpo porque despues la respuesta ya esta enviada.
+ */
+@ControllerAdvice
+@ConditionalOnProperty(name = "papeleria.sql.cabeceras", havingValue = "true")
+public class CabecerasSql implements ResponseBodyAdvice<Object> {
+
+    @Value("${papeleria.sql.umbral-repeticiones:10}")
+    private int umbralRepeticiones;
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return true;
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+                                  Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+        SentenciasPeticion sentencias = SentenciasPeticion.actual();
+        if (sentencias != null) {
+            response.getHeaders().set("X-Sql-Sentencias", String.valueOf(sentencias.getSentencias()));
+            response.getHeaders().set("X-Sql-Tiempo-Ms",
+                    String.valueOf(TimeUnit.NANOSECONDS.toMillis(sentencias.getTiempoNanos())));
+            response.getHeaders().set("X-Sql-Repetidas",
+                    String.valueOf(sentencias.repetidas(umbralRepeticiones).size()));
+        }
+        return body;
+    }
+}
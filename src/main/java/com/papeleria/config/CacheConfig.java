@@ -0,0 +1,64 @@
+package com.papeleria.config;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import java.net.URI;
+import java.util.OptionalLong;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Regiones de la cache de segundo nivel de Hibernate, en memoria (Caffeine) y acotadas por tamano y tiempo.
+ * Se crean aqui y no a demanda para que ninguna region quede sin limite.
+ */
+@Configuration
+public class CacheConfig {
+
+    public static final String REGION_PRODUCTOS = "productos";
+    public static final String REGION_CONSULTAS_CATALOGO = "consultas-catalogo";
+    // Regiones propias de la cache de consultas de Hibernate.
+    public static final String REGION_CONSULTAS = "default-query-results-region";
+    public static final String REGION_MARCAS_TIEMPO = "default-update-timestamps-region";
+
+    @Bean(destroyMethod = "close")
+    public CacheManager hibernateCacheManager(
+            @Value("${papeleria.cache.productos.maximo:5000}") long maximoProductos,
+            @Value("${papeleria.cache.consultas.maximo:500}") long maximoConsultas,
+            @Value("${papeleria.cache.ttl-segundos:300}") long ttlSegundos) {
+        // Una URI por contexto: el proveedor comparte los CacheManager por URI y las pruebas levantan varios
+        // contextos en la misma JVM.
+        CacheManager cacheManager = Caching.getCachingProvider(CaffeineCachingProvider.class.getName())
+                .getCacheManager(URI.create("papeleria-hibernate-" + UUID.randomUUID()), getClass().getClassLoader());
+
+        cacheManager.createCache(REGION_PRODUCTOS, configuracion(maximoProductos, ttlSegundos));
+        cacheManager.createCache(REGION_CONSULTAS_CATALOGO, configuracion(maximoConsultas, ttlSegundos));
+        cacheManager.createCache(REGION_CONSULTAS, configuracion(maximoConsultas, ttlSegundos));
+        // Hibernate exige que las marcas de tiempo por tabla no expiren; hay una entrada por tabla.
+        cacheManager.createCache(REGION_MARCAS_TIEMPO, configuracion(maximoConsultas, 0));
+        return cacheManager;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer hibernateCacheManagerCustomizer(CacheManager hibernateCacheManager) {
+        return propiedades -> propiedades.put(ConfigSettings.CACHE_MANAGER, hibernateCacheManager);
+    }
+
+    private CaffeineConfiguration<Object, Object> configuracion(long maximo, long ttlSegundos) {
+        CaffeineConfiguration<Object, Object> configuracion = new CaffeineConfiguration<>();
+        configuracion.setMaximumSize(OptionalLong.of(maximo));
+        if (ttlSegundos > 0) {
+            configuracion.setExpireAfterWrite(OptionalLong.of(TimeUnit.SECONDS.toNanos(ttlSegundos)));
+        }
+        // Hibernate ya guarda el estado desensamblado; copiar por valor solo agrega serializacion.
+        configuracion.setStoreByValue(false);
+        configuracion.setNativeStatisticsEnabled(true);
+        return configuracion;
+    }
+}
@@ -0,0 +1,82 @@
+package com.papeleria.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.Map;
+import javax.sql.DataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+/**
+ * Lleva la cuenta de las sentencias SQL de cada peticion HTTP (ver {@link DataSourceContado}). Al terminar avisa
+ * cuando una misma forma de sentencia se repitio mas de papeleria.sql.umbral-repeticiones veces, la firma de una
+ * carga perezosa dentro de un ciclo (N+1), y lo cuenta en la metrica papeleria.sql.repetidas por endpoint. Con
+ * papeleria.verificar-indices=true tambien le pasa las consultas de la peticion a {@link VerificadorIndices}.
+ */
+@Slf4j
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@ConditionalOnProperty(name = "papeleria.sql.contador", havingValue = "true", matchIfMissing = true)
+public class ContadorSql extends OncePerRequestFilter {
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${papeleria.sql.umbral-repeticiones:10}")
+    private int umbralRepeticiones;
+
+    // Solo con papeleria.verificar-indices=true.
+    @Autowired(required = false)
+    private VerificadorIndices verificadorIndices;
+
+    @Bean
+    static BeanPostProcessor dataSourceContado() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                return bean instanceof DataSource dataSource && !(bean instanceof DataSourceContado)
+                        ? new DataSourceContado(dataSource)
+                        : bean;
+            }
+        };
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        SentenciasPeticion sentencias = new SentenciasPeticion(verificadorIndices != null);
+        request.setAttribute(SentenciasPeticion.ATRIBUTO, sentencias);
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            Map<String, Long> repetidas = sentencias.repetidas(umbralRepeticiones);
+            if (!repetidas.isEmpty()) {
+                String endpoint = endpoint(request);
+                repetidas.forEach((forma, veces) ->
+                        log.warn("Posible N+1 en {}: {} veces {}", endpoint, veces, forma));
+                meterRegistry.counter("papeleria.sql.repetidas", "endpoint", endpoint).increment();
+            }
+            if (verificadorIndices != null) {
+                verificadorIndices.revisar(endpoint(request), sentencias.getConsultas());
+            }
+        }
+    }
+
+    static String endpoint(HttpServletRequest request) {
+        Object patron = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        return request.getMethod() + " " + (patron != null ? patron : request.getRequestURI());
+    }
+}
@@ -16,6 +16,7 @@ import java.util.List;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
 
 @Component
 public class DataInitializer implements CommandLineRunner {
@@ -29,7 +30,9 @@ public class DataInitializer implements CommandLineRunner {
     @Autowired
     private MovimientoRepository movimientoRepository;
 
+    // En una transaccion de escritura para que los datos recien creados se lean de la primaria y no de una replica.
     @Override
+    @Transactional
     public void run(String... args) throws Exception {
         if (productoRepository.count() == 0) {
             System.out.println("No hay productos en la base de datos. Creando datos de ejemplo con moneda colombiana...");
@@ -83,6 +86,7 @@ public class DataInitializer implements CommandLineRunner {
                     .producto(productos.get(0))
                     .cantidad(2)
                     .precioUnitario(productos.get(0).getPrecioVenta())
+                    .costoUnitario(productos.get(0).getPrecioCompra())
                     .subtotal(productos.get(0).getPrecioVenta().multiply(new BigDecimal("2")))
                     .build();
             v1.agregarDetalle(dv1);
@@ -92,6 +96,7 @@ public class DataInitializer implements CommandLineRunner {
                     .producto(productos.get(1))
                     .cantidad(1)
                     .precioUnitario(productos.get(1).getPrecioVenta())
+                    .costoUnitario(productos.get(1).getPrecioCompra())
                     .subtotal(productos.get(1).getPrecioVenta())
                     .build();
             v1.agregarDetalle(dv2);
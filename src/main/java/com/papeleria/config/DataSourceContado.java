@@ -0,0 +1,114 @@
+package com.papeleria.config;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import javax.sql.DataSource;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+/**
+ * DataSource que suma cada sentencia ejecutada, con su forma y su tiempo JDBC, a la {@link SentenciasPeticion} de
+ * la peticion en curso. Un lote JDBC cuenta como una sentencia. Fuera de una peticion no registra nada. Si la
+ * peticion guarda consultas (ver {@link VerificadorIndices}), tambien le pasa cada SELECT preparado con sus
+ * parametros.
+ */
+class DataSourceContado extends DelegatingDataSource implements Closeable {
+
+    private static final Set<String> PREPARACIONES = Set.of("prepareStatement", "prepareCall");
+    private static final Set<String> EJECUCIONES = Set.of("execute", "executeQuery", "executeUpdate",
+            "executeLargeUpdate", "executeBatch", "executeLargeBatch");
+    private static final Set<String> CONSULTAS = Set.of("execute", "executeQuery");
+
+    DataSourceContado(DataSource destino) {
+        super(destino);
+    }
+
+    // El contenedor cierra el bean envuelto, asi que el cierre se pasa al pool.
+    @Override
+    public void close() throws IOException {
+        if (obtainTargetDataSource() instanceof Closeable destino) {
+            destino.close();
+        }
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return conexion(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String usuario, String clave) throws SQLException {
+        return conexion(super.getConnection(usuario, clave));
+    }
+
+    private Connection conexion(Connection conexion) {
+        return ProxyJdbc.crear(Connection.class, conexion, (metodo, args) -> {
+            Object resultado = metodo.invoke(conexion, args);
+            if (resultado instanceof Statement sentencia) {
+                // Las preparadas llevan su SQL desde aqui; las simples lo reciben al ejecutar.
+                String sql = PREPARACIONES.contains(metodo.getName()) ? (String) args[0] : null;
+                Object contada = sentencia(metodo.getReturnType(), sentencia, sql);
+                SentenciasPeticion sentencias = sql != null ? SentenciasPeticion.actual() : null;
+                return sentencias != null && sentencias.guardaConsultas() && esConsulta(sql)
+                        ? consulta(metodo.getReturnType(), contada, sql, sentencias)
+                        : contada;
+            }
+            return resultado;
+        });
+    }
+
+    // Anota los parametros que se le pasan a la consulta preparada y al ejecutarla la guarda con ellos, para que
+    // VerificadorIndices la pueda pasar por EXPLAIN.
+    private Object consulta(Class<?> tipo, Object sentencia, String sql, SentenciasPeticion sentencias) {
+        Map<Integer, Object> parametros = new TreeMap<>();
+        return ProxyJdbc.crear(tipo, sentencia, (metodo, args) -> {
+            String nombre = metodo.getName();
+            if (nombre.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer indice) {
+                parametros.put(indice, "setNull".equals(nombre) ? null : args[1]);
+            } else if ("clearParameters".equals(nombre)) {
+                parametros.clear();
+            } else if (CONSULTAS.contains(nombre) && (args == null || args.length == 0)) {
+                sentencias.guardar(sql, parametros.values().toArray());
+            }
+            return metodo.invoke(sentencia, args);
+        });
+    }
+
+    private static boolean esConsulta(String sql) {
+        return sql.stripLeading().regionMatches(true, 0, "select", 0, 6);
+    }
+
+    // La forma se calcula recien al registrar, porque fuera de una peticion no hace falta; la de una preparada se
+    // calcula una vez aunque se ejecute varias.
+    private Object sentencia(Class<?> tipo, Statement sentencia, String sqlPreparado) {
+        String[] formaPreparada = new String[1];
+        return ProxyJdbc.crear(tipo, sentencia, (metodo, args) -> {
+            SentenciasPeticion sentencias = EJECUCIONES.contains(metodo.getName()) ? SentenciasPeticion.actual() : null;
+            if (sentencias == null) {
+                return metodo.invoke(sentencia, args);
+            }
+            long inicio = System.nanoTime();
+            try {
+                return metodo.invoke(sentencia, args);
+            } finally {
+                String forma;
+                if (args != null && args.length > 0 && args[0] instanceof String sql) {
+                    forma = SentenciasPeticion.forma(sql);
+                } else if (sqlPreparado != null) {
+                    if (formaPreparada[0] == null) {
+                        formaPreparada[0] = SentenciasPeticion.forma(sqlPreparado);
+                    }
+                    forma = formaPreparada[0];
+                } else {
+                    forma = "lote";
+                }
+                sentencias.registrar(forma, System.nanoTime() - inicio);
+            }
+        });
+    }
+}
@@ -0,0 +1,265 @@
+package com.papeleria.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import java.io.Closeable;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+/**
+ * Envia las transacciones de solo lectura a las replicas y todo lo demas a la base primaria. La conexion se pide
+ * recien en la primera sentencia, cuando la transaccion ya sabe si es de solo lectura. Una replica que no responde
+ * o que va mas atrasada que el maximo permitido deja de usarse hasta la siguiente verificacion; sin ninguna
+ * disponible las lecturas vuelven a la primaria.
+ *
+ * <p>Lectura de lo propio: despues de escribir, el cliente lee de la primaria durante unos segundos (cookie
+ * {@value #COOKIE_PRIMARIA}; el frontend manda las peticiones con credenciales para devolverla) para que vea
+ * enseguida, por ejemplo, la venta que acaba de registrar.
+ */
+@Slf4j
+class DataSourceReplicado extends LazyConnectionDataSourceProxy implements Closeable {
+
+    static final String COOKIE_PRIMARIA = "papeleria-primaria";
+    private static final String ATRIBUTO_ESCRIBIO = DataSourceReplicado.class.getName() + ".escribio";
+    private static final Pattern ESCRITURA =
+            Pattern.compile("\\s*(insert|update|delete|merge|replace)\\b", Pattern.CASE_INSENSITIVE);
+
+    private final HikariDataSource primaria;
+    private final List<Replica> replicas;
+    private final int retrasoMaximoSegundos;
+    private final int lecturaPropiaSegundos;
+    private final AtomicInteger siguiente = new AtomicInteger();
+    private final ScheduledExecutorService verificador;
+
+    DataSourceReplicado(HikariDataSource primaria, List<HikariDataSource> replicas, int retrasoMaximoSegundos,
+                        int lecturaPropiaSegundos, long verificacionMs) {
+        this.primaria = primaria;
+        this.replicas = replicas.stream().map(Replica::new).toList();
+        this.retrasoMaximoSegundos = retrasoMaximoSegundos;
+        this.lecturaPropiaSegundos = lecturaPropiaSegundos;
+        setTargetDataSource(new Ruta());
+        afterPropertiesSet();
+
+        this.verificador = Executors.newSingleThreadScheduledExecutor(tarea -> {
+            Thread hilo = new Thread(tarea, "verificador-replicas");
+            hilo.setDaemon(true);
+            return hilo;
+        });
+        // Hasta la primera verificacion las lecturas van a la primaria.
+        verificador.scheduleWithFixedDelay(this::verificar, 0, verificacionMs, TimeUnit.MILLISECONDS);
+    }
+
+    List<Replica> getReplicas() {
+        return replicas;
+    }
+
+    void verificar() {
+        replicas.forEach(Replica::verificar);
+    }
+
+    @Override
+    public void close() {
+        verificador.shutdownNow();
+        replicas.forEach(replica -> replica.pool.close());
+        primaria.close();
+    }
+
+    private boolean leerDePrimaria() {
+        if (lecturaPropiaSegundos <= 0
+                || !(RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes peticion)) {
+            return false;
+        }
+        try {
+            HttpServletRequest request = peticion.getRequest();
+            if (request.getAttribute(ATRIBUTO_ESCRIBIO) != null) {
+                return true;
+            }
+            Cookie[] cookies = request.getCookies();
+            if (cookies != null) {
+                for (Cookie cookie : cookies) {
+                    if (COOKIE_PRIMARIA.equals(cookie.getName())) {
+                        return true;
+                    }
+                }
+            }
+            return false;
+        } catch (IllegalStateException ex) {
+            // La peticion ya respondio (una consulta de reporte que sigue corriendo en otro hilo).
+            return false;
+        }
+    }
+
+    // La peticion en curso si todavia no escribio; fuera de una peticion no hay a quien fijarle la primaria.
+    private ServletRequestAttributes peticionSinEscritura() {
+        if (lecturaPropiaSegundos <= 0
+                || !(RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes peticion)) {
+            return null;
+        }
+        try {
+            return peticion.getAttribute(ATRIBUTO_ESCRIBIO, RequestAttributes.SCOPE_REQUEST) == null ? peticion : null;
+        } catch (IllegalStateException ex) {
+            // La peticion ya respondio.
+            return null;
+        }
+    }
+
+    private void marcarEscritura(ServletRequestAttributes peticion) {
+        try {
+            if (peticion.getAttribute(ATRIBUTO_ESCRIBIO, RequestAttributes.SCOPE_REQUEST) != null) {
+                return;
+            }
+            peticion.setAttribute(ATRIBUTO_ESCRIBIO, Boolean.TRUE, RequestAttributes.SCOPE_REQUEST);
+        } catch (IllegalStateException ex) {
+            // La peticion ya respondio.
+            return;
+        }
+        if (peticion.getResponse() != null && !peticion.getResponse().isCommitted()) {
+            Cookie cookie = new Cookie(COOKIE_PRIMARIA, "1");
+            cookie.setPath("/");
+            cookie.setHttpOnly(true);
+            cookie.setMaxAge(lecturaPropiaSegundos);
+            peticion.getResponse().addCookie(cookie);
+        }
+    }
+
+    /**
+     * Conexion de la primaria que marca la peticion recien cuando ejecuta un insert, update o delete: los servicios
+     * con @Transactional de clase tambien leen en transacciones de escritura, y esas lecturas no fijan la primaria.
+     */
+    private Connection conEscrituras(Connection conexion, ServletRequestAttributes peticion) {
+        return ProxyJdbc.crear(Connection.class, conexion, (metodo, args) -> {
+            if (metodo.getName().startsWith("prepare") && args[0] instanceof String sql && escribe(sql)) {
+                marcarEscritura(peticion);
+            }
+            Object resultado = metodo.invoke(conexion, args);
+            if (resultado instanceof Statement sentencia && metodo.getName().equals("createStatement")) {
+                // Las sentencias simples reciben el SQL al ejecutar.
+                return ProxyJdbc.crear(Statement.class, sentencia, (ejecucion, argumentos) -> {
+                    if (argumentos != null && argumentos.length > 0 && argumentos[0] instanceof String sql && escribe(sql)) {
+                        marcarEscritura(peticion);
+                    }
+                    return ejecucion.invoke(sentencia, argumentos);
+                });
+            }
+            return resultado;
+        });
+    }
+
+    private static boolean escribe(String sql) {
+        return ESCRITURA.matcher(sql).lookingAt();
+    }
+
+    private class Ruta extends AbstractDataSource {
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+                ServletRequestAttributes peticion = peticionSinEscritura();
+                Connection conexion = primaria.getConnection();
+                return peticion != null ? conEscrituras(conexion, peticion) : conexion;
+            }
+            if (!leerDePrimaria()) {
+                for (int intento = 0; intento < replicas.size(); intento++) {
+                    Replica replica = replicas.get(Math.floorMod(siguiente.getAndIncrement(), replicas.size()));
+                    if (!replica.disponible) {
+                        continue;
+                    }
+                    try {
+                        return replica.pool.getConnection();
+                    } catch (SQLException ex) {
+                        replica.descartar("sin conexion: " + ex.getMessage());
+                    }
+                }
+            }
+            return primaria.getConnection();
+        }
+
+        @Override
+        public Connection getConnection(String usuario, String clave) throws SQLException {
+            throw new SQLFeatureNotSupportedException("Las conexiones usan las credenciales de cada pool");
+        }
+    }
+
+    final class Replica {
+
+        private final HikariDataSource pool;
+        private volatile boolean disponible;
+        private volatile boolean verificada;
+
+        private Replica(HikariDataSource pool) {
+            this.pool = pool;
+        }
+
+        String getNombre() {
+            return pool.getPoolName();
+        }
+
+        boolean isDisponible() {
+            return disponible;
+        }
+
+        private void verificar() {
+            try (Connection conexion = pool.getConnection()) {
+                Long retraso = retrasoSegundos(conexion);
+                if (retraso == null) {
+                    descartar("replicacion detenida");
+                } else if (retraso > retrasoMaximoSegundos) {
+                    descartar("atrasada " + retraso + " s");
+                } else {
+                    marcar(true, null);
+                }
+            } catch (SQLException | RuntimeException ex) {
+                descartar("sin conexion: " + ex.getMessage());
+            }
+        }
+
+        private void descartar(String motivo) {
+            marcar(false, motivo);
+        }
+
+        private synchronized void marcar(boolean disponible, String motivo) {
+            if (!verificada || this.disponible != disponible) {
+                if (disponible) {
+                    log.info("Replica {} en uso", getNombre());
+                } else {
+                    log.warn("Replica {} fuera de uso, las lecturas van a la primaria: {}", getNombre(), motivo);
+                }
+            }
+            this.disponible = disponible;
+            this.verificada = true;
+        }
+
+        // Segundos de atraso segun MySQL; null si la replicacion esta detenida. Otras bases (la H2 de pruebas
+        // locales) no informan atraso y se toman al dia.
+        private Long retrasoSegundos(Connection conexion) throws SQLException {
+            if (!conexion.getMetaData().getDatabaseProductName().toLowerCase().contains("mysql")) {
+                return 0L;
+            }
+            try (Statement sentencia = conexion.createStatement();
+                 ResultSet estado = sentencia.executeQuery("SHOW REPLICA STATUS")) {
+                if (!estado.next()) {
+                    return 0L;
+                }
+                long retraso = estado.getLong("Seconds_Behind_Source");
+                return estado.wasNull() ? null : retraso;
+            }
+        }
+    }
+}
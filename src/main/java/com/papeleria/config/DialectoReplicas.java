@@ -0,0 +1,29 @@
+package com.papeleria.config;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceException;
+import java.sql.SQLException;
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+import org.springframework.orm.jpa.vendor.HibernateJpaDialect;
+import org.springframework.transaction.TransactionDefinition;
+
+/**
+ * Con replicas las transacciones de solo lectura pueden leer de una base atrasada. Sus sesiones usan la cache de
+ * segundo nivel y la de consultas solo para leer ({@link CacheMode#GET}): una fila vieja de la replica, por
+ * ejemplo el stock de antes de una venta, no puede volver a la cache que comparten todas las transacciones. Las
+ * caches se llenan desde las demas transacciones, que van siempre a la primaria.
+ */
+class DialectoReplicas extends HibernateJpaDialect {
+
+    @Override
+    public Object beginTransaction(EntityManager entityManager, TransactionDefinition definition)
+            throws PersistenceException, SQLException {
+        Object datos = super.beginTransaction(entityManager, definition);
+        // Sin open-in-view cada transaccion abre su propia sesion, asi que el modo no pasa a otra transaccion.
+        if (definition.isReadOnly()) {
+            entityManager.unwrap(Session.class).setCacheMode(CacheMode.GET);
+        }
+        return datos;
+    }
+}
@@ -0,0 +1,10 @@
+package com.papeleria.config;
+
+import com.papeleria.repositories.AgregadoJpaRepository;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+
+@Configuration
+@EnableJpaRepositories(basePackages = "com.papeleria.repositories", repositoryBaseClass = AgregadoJpaRepository.class)
+public class JpaConfig {
+}
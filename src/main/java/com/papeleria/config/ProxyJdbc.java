@@ -0,0 +1,36 @@
+package com.papeleria.config;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+
+/**
+ * Proxy dinamico sobre una conexion o sentencia JDBC. Un unwrap al tipo envuelto devuelve el objeto real, para que
+ * Hibernate y Hikari lo sigan encontrando.
+ */
+final class ProxyJdbc {
+
+    private ProxyJdbc() {
+    }
+
+    @SuppressWarnings("unchecked")
+    static <T> T crear(Class<T> tipo, Object destino, Invocacion invocacion) {
+        InvocationHandler handler = (instancia, metodo, args) -> {
+            if (metodo.getName().equals("unwrap") && args[0] instanceof Class<?> clase && clase.isInstance(destino)) {
+                return destino;
+            }
+            try {
+                return invocacion.invocar(metodo, args);
+            } catch (InvocationTargetException ex) {
+                throw ex.getCause();
+            }
+        };
+        return (T) Proxy.newProxyInstance(ProxyJdbc.class.getClassLoader(), new Class<?>[]{tipo}, handler);
+    }
+
+    @FunctionalInterface
+    interface Invocacion {
+        Object invocar(Method metodo, Object[] args) throws Exception;
+    }
+}
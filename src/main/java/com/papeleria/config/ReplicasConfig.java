@@ -0,0 +1,96 @@
+package com.papeleria.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.ArrayList;
+import java.util.List;
+import javax.sql.DataSource;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+
+/**
+ * Con papeleria.datasource.replicas (URLs JDBC separadas por coma) la aplicacion usa un pool para la primaria
+ * (spring.datasource) y uno por replica, y las transacciones de solo lectura van a las replicas (ver
+ * {@link DataSourceReplicado}), sin escribir en las caches de Hibernate (ver {@link DialectoReplicas}). Sin replicas
+ * configuradas queda el DataSource de siempre.
+ */
+@Configuration
+@ConditionalOnExpression("'${papeleria.datasource.replicas:}' != ''")
+public class ReplicasConfig {
+
+    // Una replica caida no debe demorar la lectura mas que esto antes de ir a la primaria.
+    private static final long TIMEOUT_CONEXION_REPLICA_MS = 2000;
+
+    @Bean
+    @Primary
+    public DataSource dataSource(
+            DataSourceProperties propiedades,
+            Environment environment,
+            ObjectProvider<MeterRegistry> meterRegistry,
+            @Value("${papeleria.datasource.replicas}") List<String> urlsReplicas,
+            @Value("${papeleria.datasource.replicas-usuario:${spring.datasource.username:}}") String usuario,
+            @Value("${papeleria.datasource.replicas-clave:${spring.datasource.password:}}") String clave,
+            @Value("${papeleria.datasource.retraso-maximo-segundos:5}") int retrasoMaximoSegundos,
+            @Value("${papeleria.datasource.lectura-propia-segundos:5}") int lecturaPropiaSegundos,
+            @Value("${papeleria.datasource.verificacion-ms:5000}") long verificacionMs) {
+        HikariDataSource primaria = pool(propiedades, environment, meterRegistry, "papeleria-primaria");
+
+        List<HikariDataSource> replicas = new ArrayList<>();
+        for (String url : urlsReplicas) {
+            HikariDataSource replica = pool(propiedades, environment, meterRegistry,
+                    "papeleria-replica-" + (replicas.size() + 1));
+            replica.setJdbcUrl(url.trim());
+            replica.setUsername(usuario);
+            replica.setPassword(clave);
+            replica.setReadOnly(true);
+            replica.setConnectionTimeout(Math.min(replica.getConnectionTimeout(), TIMEOUT_CONEXION_REPLICA_MS));
+            // La aplicacion arranca aunque la replica no responda; el verificador la deja fuera hasta que vuelva.
+            replica.setInitializationFailTimeout(-1);
+            replicas.add(replica);
+        }
+
+        DataSourceReplicado dataSource = new DataSourceReplicado(primaria, replicas, retrasoMaximoSegundos,
+                lecturaPropiaSegundos, verificacionMs);
+        meterRegistry.ifAvailable(registry -> dataSource.getReplicas().forEach(replica ->
+                Gauge.builder("papeleria.datasource.replica.disponible", replica, r -> r.isDisponible() ? 1 : 0)
+                        .tag("pool", replica.getNombre())
+                        .register(registry)));
+        return dataSource;
+    }
+
+    // Se fija antes de que la fabrica tome el dialecto del JpaVendorAdapter; el JpaTransactionManager lo toma de ella.
+    @Bean
+    public static BeanPostProcessor dialectoReplicas() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String nombre) {
+                if (bean instanceof LocalContainerEntityManagerFactoryBean fabrica) {
+                    fabrica.setJpaDialect(new DialectoReplicas());
+                }
+                return bean;
+            }
+        };
+    }
+
+    // Mismas propiedades que el pool que arma Spring Boot (spring.datasource.hikari.*), con metricas propias.
+    private HikariDataSource pool(DataSourceProperties propiedades, Environment environment,
+                                  ObjectProvider<MeterRegistry> meterRegistry, String nombre) {
+        HikariDataSource pool = propiedades.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        Binder.get(environment).bind("spring.datasource.hikari", Bindable.ofInstance(pool));
+        pool.setPoolName(nombre);
+        meterRegistry.ifAvailable(registry -> pool.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(registry)));
+        return pool;
+    }
+}
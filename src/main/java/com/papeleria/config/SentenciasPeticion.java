@@ -0,0 +1,99 @@
+package com.papeleria.config;
+
+import jakarta.servlet.ServletRequest;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+/**
+ * Sentencias SQL y tiempo JDBC de una peticion HTTP, agrupadas por forma (la sentencia sin valores literales ni
+ * largos de listas IN). Es segura entre hilos porque las consultas de un reporte corren en paralelo.
+ */
+public class SentenciasPeticion {
+
+    static final String ATRIBUTO = SentenciasPeticion.class.getName();
+
+    private static final Pattern TEXTOS = Pattern.compile("'(?:[^']|'')*'");
+    private static final Pattern NUMEROS = Pattern.compile("\\b\\d+(?:\\.\\d+)?\\b");
+    private static final Pattern LISTAS = Pattern.compile("\\(\\s*\\?(?:\\s*,\\s*\\?)+\\s*\\)");
+    private static final Pattern ESPACIOS = Pattern.compile("\\s+");
+
+    private final LongAdder sentencias = new LongAdder();
+    private final LongAdder tiempoNanos = new LongAdder();
+    private final Map<String, LongAdder> porForma = new ConcurrentHashMap<>();
+    // Consultas con sus parametros, solo cuando se verifican los indices; null si no se guardan.
+    private final Queue<VerificadorIndices.Consulta> consultas;
+
+    SentenciasPeticion(boolean guardarConsultas) {
+        consultas = guardarConsultas ? new ConcurrentLinkedQueue<>() : null;
+    }
+
+    // La de la peticion en curso; null fuera de una peticion o si ya respondio.
+    public static SentenciasPeticion actual() {
+        RequestAttributes peticion = RequestContextHolder.getRequestAttributes();
+        if (peticion == null) {
+            return null;
+        }
+        try {
+            return (SentenciasPeticion) peticion.getAttribute(ATRIBUTO, RequestAttributes.SCOPE_REQUEST);
+        } catch (IllegalStateException ex) {
+            // La peticion ya respondio (por ejemplo, un reporte que vencio su tiempo).
+            return null;
+        }
+    }
+
+    public static SentenciasPeticion de(ServletRequest request) {
+        return (SentenciasPeticion) request.getAttribute(ATRIBUTO);
+    }
+
+    static String forma(String sql) {
+        String forma = TEXTOS.matcher(sql).replaceAll("?");
+        forma = NUMEROS.matcher(forma).replaceAll("?");
+        forma = LISTAS.matcher(forma).replaceAll("(?)");
+        return ESPACIOS.matcher(forma).replaceAll(" ").trim().toLowerCase();
+    }
+
+    void registrar(String forma, long nanos) {
+        sentencias.increment();
+        tiempoNanos.add(nanos);
+        porForma.computeIfAbsent(forma, clave -> new LongAdder()).increment();
+    }
+
+    boolean guardaConsultas() {
+        return consultas != null;
+    }
+
+    void guardar(String sql, Object[] parametros) {
+        consultas.add(new VerificadorIndices.Consulta(forma(sql), sql, parametros));
+    }
+
+    List<VerificadorIndices.Consulta> getConsultas() {
+        return consultas != null ? List.copyOf(consultas) : List.of();
+    }
+
+    public long getSentencias() {
+        return sentencias.sum();
+    }
+
+    public long getTiempoNanos() {
+        return tiempoNanos.sum();
+    }
+
+    // Formas que se ejecutaron mas de umbral veces: la firma de un N+1.
+    public Map<String, Long> repetidas(int umbral) {
+        Map<String, Long> repetidas = new LinkedHashMap<>();
+        porForma.forEach((forma, veces) -> {
+            if (veces.sum() > umbral) {
+                repetidas.put(forma, veces.sum());
+            }
+        });
+        return repetidas;
+    }
+}
@@ -0,0 +1,98 @@
+package com.papeleria.config;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Corre EXPLAIN sobre las consultas que ejecuta la aplicacion y avisa las que recorren una tabla completa sin
+ * ningun indice aplicable. Se activa con papeleria.verificar-indices=true: {@link ContadorSql} guarda entonces cada
+ * consulta de la peticion con sus parametros y al terminar se la pasa, y cada forma de consulta se revisa una sola
+ * vez. Sirve contra el MySQL de docker-compose o una base H2 en modo MySQL; las pruebas recorren los listados y
+ * reportes sobre H2 (VerificadorIndicesTest).
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "papeleria.verificar-indices", havingValue = "true")
+public class VerificadorIndices {
+
+    private static final Pattern RECORRIDO_H2 = Pattern.compile("(\\w+)\\.tableScan");
+
+    private final Set<String> revisadas = ConcurrentHashMap.newKeySet();
+    private final Queue<String> encontrados = new ConcurrentLinkedQueue<>();
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    // Revisa las formas de consulta de la peticion que todavia no se habian visto.
+    void revisar(String endpoint, Collection<Consulta> consultas) {
+        List<Consulta> nuevas = consultas.stream()
+                .filter(consulta -> revisadas.add(consulta.nombre()))
+                .toList();
+        if (nuevas.isEmpty()) {
+            return;
+        }
+        for (String recorrido : recorridos(nuevas)) {
+            log.warn("Consulta de {} que recorre la tabla completa: {}", endpoint, recorrido);
+            encontrados.add(endpoint + ": " + recorrido);
+        }
+    }
+
+    public int getRevisadas() {
+        return revisadas.size();
+    }
+
+    // Consultas (y tabla) que recorrieron una tabla completa desde el arranque.
+    public List<String> getRecorridos() {
+        return List.copyOf(encontrados);
+    }
+
+    // Consultas (y tabla) que recorren una tabla completa.
+    List<String> recorridos(List<Consulta> consultas) {
+        boolean mysql = jdbcTemplate.execute((ConnectionCallback<String>) conexion ->
+                conexion.getMetaData().getDatabaseProductName()).toLowerCase().contains("mysql");
+
+        List<String> recorridos = new ArrayList<>();
+        for (Consulta consulta : consultas) {
+            List<String> tablas = mysql ? recorridosMysql(consulta) : recorridosH2(consulta);
+            tablas.forEach(tabla -> recorridos.add(consulta.nombre() + " (" + tabla + ")"));
+        }
+        return recorridos;
+    }
+
+    // Con pocas filas MySQL puede preferir el recorrido aunque haya indice; solo se marca cuando no tiene ninguno.
+    private List<String> recorridosMysql(Consulta consulta) {
+        return jdbcTemplate.queryForList("explain " + consulta.sql(), consulta.parametros()).stream()
+                .filter(fila -> "ALL".equals(fila.get("type")) && fila.get("possible_keys") == null)
+                .map(fila -> String.valueOf(fila.get("table")))
+                .toList();
+    }
+
+    private List<String> recorridosH2(Consulta consulta) {
+        List<String> tablas = new ArrayList<>();
+        for (Map<String, Object> fila : jdbcTemplate.queryForList("explain " + consulta.sql(), consulta.parametros())) {
+            Matcher matcher = RECORRIDO_H2.matcher(String.valueOf(fila.values().iterator().next()));
+            while (matcher.find()) {
+                tablas.add(matcher.group(1));
+            }
+        }
+        return tablas;
+    }
+
+    // El nombre es la forma de la consulta (ver SentenciasPeticion.forma).
+    record Consulta(String nombre, String sql, Object... parametros) {
+    }
+}
@@ -17,6 +17,7 @@ public class WebConfig {
                         .allowedOrigins("http://localhost:4200") // Permite peticiones desde Angular
                         .allowedMethods("GET", "POST", "PUT", "DELETE", "OPTIONS", "PATCH") // Métodos HTTP permitidos
                         .allowedHeaders("*") // Permite todas las cabeceras
+                        .exposedHeaders("ETag", "Server-Timing", "X-Sql-Sentencias", "X-Sql-Tiempo-Ms", "X-Sql-Repetidas") // Cabeceras que el frontend puede leer
                         .allowCredentials(true); // Permite el envío de credenciales (cookies, etc.)
             }
         };
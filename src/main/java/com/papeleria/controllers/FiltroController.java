@@ -3,10 +3,13 @@ package com.papeleria.controllers;
 import com.papeleria.dtos.FiltrosDTO;
 import com.papeleria.services.FiltroService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
 @RestController
 @RequestMapping("/api/filtros")
@@ -16,7 +19,17 @@ public class FiltroController {
     private FiltroService filtroService;
 
     @GetMapping
-    public ResponseEntity<FiltrosDTO> getFiltros() {
-        return ResponseEntity.ok(filtroService.getFiltros());
+    public ResponseEntity<FiltrosDTO> getFiltros(WebRequest request) {
+        FiltroService.CatalogoFiltros catalogo = filtroService.getCatalogo();
+        if (request.checkNotModified(catalogo.version())) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(catalogo.version())
+                    .cacheControl(CacheControl.noCache())
+                    .build();
+        }
+        return ResponseEntity.ok()
+                .eTag(catalogo.version())
+                .cacheControl(CacheControl.noCache())
+                .body(catalogo.filtros());
     }
 }
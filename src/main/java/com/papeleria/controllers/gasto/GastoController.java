@@ -4,8 +4,9 @@ import com.papeleria.models.Gasto;
 import com.papeleria.services.gasto.GastoService;
 import jakarta.validation.Valid;
 import java.time.LocalDate;
-import java.util.List;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.web.PageableDefault;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -27,15 +28,17 @@ public class GastoController {
     private GastoService gastoService;
 
     @GetMapping
-    public ResponseEntity<List<Gasto>> listarGastos(
+    public ResponseEntity<?> listarGastos(
+            @PageableDefault(size = 20) Pageable pageable,
             @RequestParam(required = false) String nombre,
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate desde,
-            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate hasta) {
-        List<Gasto> gastos = gastoService.listar(desde, hasta, nombre);
-        if (gastos.isEmpty()) {
-            return ResponseEntity.noContent().build();
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate hasta,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "false") boolean conteo) {
+        if (cursor != null) {
+            return ResponseEntity.ok(gastoService.listarPorCursor(cursor, pageable.getPageSize(), conteo, desde, hasta, nombre));
         }
-        return ResponseEntity.ok(gastos);
+        return ResponseEntity.ok(gastoService.listar(pageable, desde, hasta, nombre));
     }
 
     @GetMapping("/{id}")
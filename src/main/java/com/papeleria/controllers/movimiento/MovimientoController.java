@@ -1,12 +1,18 @@
 package com.papeleria.controllers.movimiento;
 
+import com.papeleria.dtos.KardexResponse;
 import com.papeleria.dtos.MovimientoResponse;
 import com.papeleria.dtos.MovimientoUpdateRequest;
+import com.papeleria.dtos.PaginaCursor;
+import com.papeleria.dtos.StockHistoricoResponse;
 import com.papeleria.mappers.movimiento.MovimientoMapper;
 import com.papeleria.models.Movimiento;
 import com.papeleria.models.MovimientoTipo;
+import com.papeleria.services.movimiento.KardexService;
 import com.papeleria.services.movimiento.MovimientoService;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
@@ -32,6 +38,9 @@ public class MovimientoController {
     @Autowired
     private MovimientoService movimientoService;
 
+    @Autowired
+    private KardexService kardexService;
+
     @Autowired
     private MovimientoMapper movimientoMapper;
 
@@ -41,7 +50,18 @@ public class MovimientoController {
             @RequestParam(required = false) Long productoId,
             @RequestParam(required = false) MovimientoTipo tipo,
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate desde,
-            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate hasta) {
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate hasta,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "false") boolean conteo) {
+        if (cursor != null) {
+            PaginaCursor<Movimiento> pagina = movimientoService.buscarPorCursor(
+                    cursor, pageable.getPageSize(), conteo, productoId, tipo, desde, hasta);
+            if (pagina.getContenido().isEmpty()) {
+                return ResponseEntity.status(HttpStatus.NO_CONTENT).build();
+            }
+            return ResponseEntity.ok(pagina.map(movimientoMapper::toResponse));
+        }
+
         Page<Movimiento> movimientos = movimientoService.buscar(pageable, productoId, tipo, desde, hasta);
         if (movimientos.isEmpty()) {
             return ResponseEntity.status(HttpStatus.NO_CONTENT).build();
@@ -50,6 +70,21 @@ public class MovimientoController {
         return ResponseEntity.ok(response);
     }
 
+    @GetMapping("/stock")
+    public ResponseEntity<List<StockHistoricoResponse>> stockEnFecha(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime fecha,
+            @RequestParam(required = false) Long productoId) {
+        return ResponseEntity.ok(kardexService.stockEn(fecha, productoId));
+    }
+
+    @GetMapping("/kardex")
+    public ResponseEntity<KardexResponse> kardex(
+            @RequestParam Long productoId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate desde,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate hasta) {
+        return ResponseEntity.ok(kardexService.kardex(productoId, desde, hasta));
+    }
+
     @PutMapping("/{id}")
     public ResponseEntity<MovimientoResponse> actualizarMovimiento(
             @PathVariable Long id,
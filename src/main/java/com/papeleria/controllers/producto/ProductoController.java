@@ -1,12 +1,17 @@
 package com.papeleria.controllers.producto;
 
+import com.papeleria.dtos.CacheEstadisticaResponse;
+import com.papeleria.dtos.IngresoMasivoResponse;
 import com.papeleria.dtos.MovimientoEntradaMasivaRequest;
 import com.papeleria.dtos.MovimientoEntradaRequest;
 import com.papeleria.dtos.ProductoRequest;
 import com.papeleria.dtos.ProductoResponse;
+import com.papeleria.dtos.ProductoSugerenciaResponse;
 import com.papeleria.mappers.producto.ProductoMapper;
 import com.papeleria.models.Producto;
+import com.papeleria.services.producto.CatalogoCache;
 import com.papeleria.services.producto.ProductoService;
+import java.util.List;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
@@ -38,6 +43,9 @@ public class ProductoController {
     @Autowired
     private ProductoMapper productoMapper;
 
+    @Autowired
+    private CatalogoCache catalogoCache;
+
     @GetMapping
     public ResponseEntity<?> obtenerTodosLosProductos(
             @PageableDefault(size = 10, sort = "nombre", direction = Sort.Direction.DESC) Pageable pageable,
@@ -59,6 +67,18 @@ public class ProductoController {
         }
     }
 
+    @GetMapping("/autocompletar")
+    public ResponseEntity<List<ProductoSugerenciaResponse>> autocompletar(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "10") int limite) {
+        return ResponseEntity.ok(productoService.autocompletar(q, limite));
+    }
+
+    @GetMapping("/cache/estadisticas")
+    public ResponseEntity<List<CacheEstadisticaResponse>> estadisticasCache() {
+        return ResponseEntity.ok(catalogoCache.estadisticas());
+    }
+
     @PostMapping
     public ResponseEntity<ProductoResponse> crearProducto(@Valid @RequestBody ProductoRequest productoRequest) {
         Producto productoGuardado = productoService.crearProducto(productoRequest);
@@ -92,7 +112,8 @@ public class ProductoController {
     }
 
     @PatchMapping("/agregar-masivo")
-    public ResponseEntity<?> agregarCantidadMasivo(@RequestBody MovimientoEntradaMasivaRequest request) {
+    public ResponseEntity<?> agregarCantidadMasivo(@RequestBody MovimientoEntradaMasivaRequest request,
+                                                   @RequestParam(defaultValue = "false") boolean resumen) {
         if (request == null) {
             throw new IllegalArgumentException("Debe proporcionar los datos de los movimientos.");
         }
@@ -101,7 +122,10 @@ public class ProductoController {
             return ResponseEntity.badRequest().body("Debe proporcionar al menos un producto a actualizar.");
         }
 
-        var productosActualizados = productoService.agregarCantidadMasivo(movimientos);
-        return ResponseEntity.ok(productoMapper.toResponseList(productosActualizados));
+        IngresoMasivoResponse ingreso = productoService.agregarCantidadMasivo(movimientos);
+        if (resumen) {
+            return ResponseEntity.ok(ingreso);
+        }
+        return ResponseEntity.ok(productoMapper.toResponseList(productoService.buscarPorIds(ingreso.getProductoIds())));
     }
 }
@@ -1,18 +1,24 @@
 package com.papeleria.controllers.reporte;
 
 import com.papeleria.dtos.ReporteGeneralResponse;
+import com.papeleria.dtos.ProductoMasVendidoResponse;
 import com.papeleria.dtos.ProductoResponse;
+import com.papeleria.dtos.SerieVentasResponse;
+import com.papeleria.services.reporte.MasVendidosIndex;
 import com.papeleria.services.reporte.ReporteService;
 import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Collectors;
 import lombok.RequiredArgsConstructor;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 @RestController
 @RequestMapping("/api/reportes")
@@ -25,8 +31,30 @@ public class ReporteController {
     public ResponseEntity<ReporteGeneralResponse> getReporteGeneral(
         @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fechaInicio,
         @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fechaFin) {
-        ReporteGeneralResponse reporte = reporteService.getReporteGeneral(fechaInicio, fechaFin);
-        return ResponseEntity.ok(reporte);
+        ReporteService.ReporteMedido medido = reporteService.medirReporteGeneral(fechaInicio, fechaFin);
+        String tiempos = medido.tiemposMs().entrySet().stream()
+            .filter(tiempo -> tiempo.getValue() != null)
+            .map(tiempo -> tiempo.getKey() + ";dur=" + tiempo.getValue())
+            .collect(Collectors.joining(", "));
+        return ResponseEntity.ok()
+            .header("Server-Timing", tiempos)
+            .body(medido.reporte());
+    }
+
+    @GetMapping("/series")
+    public ResponseEntity<SerieVentasResponse> getSerieVentas(
+        @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fechaInicio,
+        @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fechaFin,
+        @RequestParam(defaultValue = "DIA") ReporteService.Intervalo intervalo,
+        @RequestParam(required = false) ReporteService.Agrupacion agrupacion) {
+        return ResponseEntity.ok(reporteService.getSerieVentas(fechaInicio, fechaFin, intervalo, agrupacion));
+    }
+
+    @GetMapping("/mas-vendidos")
+    public ResponseEntity<List<ProductoMasVendidoResponse>> getMasVendidos(
+        @RequestParam(defaultValue = "HOY") MasVendidosIndex.Ventana ventana,
+        @RequestParam(defaultValue = "10") int limite) {
+        return ResponseEntity.ok(reporteService.getMasVendidos(ventana, limite));
     }
 
     @GetMapping("/stock-bajo")
@@ -35,4 +63,9 @@ public class ReporteController {
         List<ProductoResponse> productos = reporteService.getProductosConStockBajo(umbral);
         return ResponseEntity.ok(productos);
     }
+
+    @GetMapping(value = "/stock-bajo/alertas", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter suscribirAlertasStock() {
+        return reporteService.suscribirAlertasStock();
+    }
 }
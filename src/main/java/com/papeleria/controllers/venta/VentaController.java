@@ -1,15 +1,21 @@
 package com.papeleria.controllers.venta;
 
 import com.papeleria.dtos.DetalleVentaResponse;
+import com.papeleria.dtos.VentaLoteRequest;
+import com.papeleria.dtos.VentaLoteResponse;
 import com.papeleria.dtos.VentaPageResponse;
 import com.papeleria.dtos.VentaRequest;
 import com.papeleria.dtos.VentaResponse;
 import com.papeleria.mappers.venta.VentaMapper;
 import com.papeleria.models.Venta;
+import com.papeleria.services.venta.VentaExportacionService;
+import com.papeleria.services.venta.VentaLoteService;
+import com.papeleria.services.venta.VentaSpecification;
 import com.papeleria.services.venta.VentaService;
 import jakarta.validation.Valid;
 
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
@@ -19,9 +25,12 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.web.PageableDefault;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 @RestController
 @RequestMapping("/api/ventas")
@@ -31,41 +40,84 @@ public class VentaController {
     @Autowired
     private VentaService ventaService;
 
+    @Autowired
+    private VentaLoteService ventaLoteService;
+
+    @Autowired
+    private VentaExportacionService ventaExportacionService;
+
     @Autowired
     private VentaMapper ventaMapper;
 
     @GetMapping
-    public ResponseEntity<VentaPageResponse> traerTodos(
+    public ResponseEntity<?> traerTodos(
             @PageableDefault(size = 10, sort = "fecha", direction = org.springframework.data.domain.Sort.Direction.ASC)
             Pageable pageable,
             @RequestParam(required = false) String metodoPago,
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate desde,
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate hasta,
             @RequestParam(required = false) BigDecimal minTotal,
-            @RequestParam(required = false) BigDecimal maxTotal) {
+            @RequestParam(required = false) BigDecimal maxTotal,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "false") boolean conteo) {
 
         LocalDateTime desdeDateTime = (desde != null) ? desde.atStartOfDay() : null;
         LocalDateTime hastaDateTime = (hasta != null) ? hasta.atTime(23, 59, 59) : null;
 
+        if (cursor != null) {
+            return ResponseEntity.ok(ventaService.traerTodosPorCursor(cursor, pageable.getPageSize(), conteo,
+                    metodoPago, desdeDateTime, hastaDateTime, minTotal, maxTotal));
+        }
+
         VentaPageResponse response = ventaService.traerTodos(pageable, metodoPago, desdeDateTime, hastaDateTime, minTotal, maxTotal);
         return ResponseEntity.ok(response);
     }
 
     @GetMapping("/detalles")
-    public ResponseEntity<Page<DetalleVentaResponse>> buscarDetalles(
+    public ResponseEntity<?> buscarDetalles(
             @PageableDefault(size = 10, sort = "venta.fecha", direction = org.springframework.data.domain.Sort.Direction.ASC)
             Pageable pageable,
             @RequestParam(required = false) String nombreProducto,
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate desde,
-            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate hasta) {
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate hasta,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "false") boolean conteo) {
 
         LocalDateTime desdeDateTime = (desde != null) ? desde.atStartOfDay() : null;
         LocalDateTime hastaDateTime = (hasta != null) ? hasta.atTime(23, 59, 59) : null;
 
+        if (cursor != null) {
+            return ResponseEntity.ok(ventaService.buscarDetallesPorCursor(cursor, pageable.getPageSize(), conteo,
+                    nombreProducto, desdeDateTime, hastaDateTime));
+        }
+
         Page<DetalleVentaResponse> page = ventaService.buscarDetalles(pageable, nombreProducto, desdeDateTime, hastaDateTime);
         return ResponseEntity.ok(page);
     }
 
+    @GetMapping("/exportar")
+    public ResponseEntity<StreamingResponseBody> exportar(
+            @RequestParam(required = false) String metodoPago,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate desde,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate hasta,
+            @RequestParam(required = false) BigDecimal minTotal,
+            @RequestParam(required = false) BigDecimal maxTotal,
+            @RequestParam(defaultValue = "CSV") VentaExportacionService.Formato formato) {
+
+        LocalDateTime desdeDateTime = (desde != null) ? desde.atStartOfDay() : null;
+        LocalDateTime hastaDateTime = (hasta != null) ? hasta.atTime(23, 59, 59) : null;
+
+        StreamingResponseBody cuerpo = ventaExportacionService.exportar(
+                VentaSpecification.filtrosListado(metodoPago, desdeDateTime, hastaDateTime, minTotal, maxTotal), formato);
+
+        boolean csv = formato == VentaExportacionService.Formato.CSV;
+        return ResponseEntity.ok()
+                .contentType(csv ? new MediaType("text", "csv", StandardCharsets.UTF_8)
+                        : MediaType.APPLICATION_NDJSON)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=ventas." + (csv ? "csv" : "ndjson"))
+                .body(cuerpo);
+    }
+
     @GetMapping("/{ventaId}/detalles")
     public ResponseEntity<List<DetalleVentaResponse>> obtenerDetallesPorVenta(@PathVariable Long ventaId) {
         List<DetalleVentaResponse> detalles = ventaService.obtenerDetallesPorVenta(ventaId);
@@ -79,6 +131,12 @@ public class VentaController {
         return new ResponseEntity<>(response, HttpStatus.CREATED);
     }
 
+    @PostMapping("/lote")
+    public ResponseEntity<VentaLoteResponse> registrarLote(@Valid @RequestBody VentaLoteRequest request) {
+        VentaLoteResponse response = ventaLoteService.registrarLote(request.getVentas());
+        return ResponseEntity.ok(response);
+    }
+
     @PutMapping("/{ventaId}")
     public ResponseEntity<VentaResponse> actualizarVenta(@PathVariable Long ventaId, @Valid @RequestBody VentaRequest request) {
         Venta ventaActualizada = ventaService.actualizarVenta(ventaId, request);
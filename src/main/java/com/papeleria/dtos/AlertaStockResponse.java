@@ -0,0 +1,15 @@
+package com.papeleria.dtos;
+
+import lombok.Builder;
+import lombok.Getter;
+
+@Getter
+@Builder
+public class AlertaStockResponse {
+
+    private TipoAlertaStock tipo;
+    private Long productoId;
+    private String nombre;
+    private Integer stock;
+    private Integer stockMinimo;
+}
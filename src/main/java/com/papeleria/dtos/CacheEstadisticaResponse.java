@@ -0,0 +1,17 @@
+package com.papeleria.dtos;
+
+import lombok.Builder;
+import lombok.Getter;
+
+@Getter
+@Builder
+public class CacheEstadisticaResponse {
+
+    private String region;
+    private long aciertos;
+    private long fallos;
+    private long escrituras;
+    private long elementos;
+    private long desalojos;
+    private double tasaAciertos;
+}
@@ -0,0 +1,14 @@
+package com.papeleria.dtos;
+
+import com.papeleria.models.Gasto;
+import java.math.BigDecimal;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class GastoCursorResponse {
+
+    private PaginaCursor<Gasto> gastos;
+    private BigDecimal totalGeneral;
+}
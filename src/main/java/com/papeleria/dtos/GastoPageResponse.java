@@ -0,0 +1,15 @@
+package com.papeleria.dtos;
+
+import com.papeleria.models.Gasto;
+import java.math.BigDecimal;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.springframework.data.domain.Page;
+
+@Getter
+@AllArgsConstructor
+public class GastoPageResponse {
+
+    private Page<Gasto> gastos;
+    private BigDecimal totalGeneral;
+}
@@ -0,0 +1,15 @@
+package com.papeleria.dtos;
+
+import java.util.List;
+import lombok.Builder;
+import lombok.Getter;
+
+@Getter
+@Builder
+public class IngresoMasivoResponse {
+
+    private Integer productos;
+    private Integer movimientos;
+    private Long unidades;
+    private List<Long> productoIds;
+}
@@ -0,0 +1,19 @@
+package com.papeleria.dtos;
+
+import com.papeleria.models.MovimientoTipo;
+import java.time.LocalDateTime;
+import lombok.Builder;
+import lombok.Getter;
+
+@Getter
+@Builder
+public class KardexLineaResponse {
+
+    private Long movimientoId;
+    private LocalDateTime fecha;
+    private MovimientoTipo tipo;
+    private Integer cantidad;
+    private Integer saldo;
+    private Long ventaId;
+    private String observacion;
+}
@@ -0,0 +1,19 @@
+package com.papeleria.dtos;
+
+import java.time.LocalDate;
+import java.util.List;
+import lombok.Builder;
+import lombok.Getter;
+
+@Getter
+@Builder
+public class KardexResponse {
+
+    private Long productoId;
+    private String productoNombre;
+    private LocalDate desde;
+    private LocalDate hasta;
+    private Integer saldoInicial;
+    private Integer saldoFinal;
+    private List<KardexLineaResponse> movimientos;
+}
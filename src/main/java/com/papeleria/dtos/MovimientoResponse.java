@@ -16,4 +16,5 @@ public class MovimientoResponse {
     private MovimientoTipo tipo;
     private LocalDateTime fechaMovimiento;
     private String observacion;
+    private Long ventaId;
 }
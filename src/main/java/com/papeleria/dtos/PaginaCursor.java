@@ -0,0 +1,25 @@
+package com.papeleria.dtos;
+
+import java.util.List;
+import java.util.function.Function;
+import lombok.Builder;
+import lombok.Getter;
+
+@Getter
+@Builder
+public class PaginaCursor<T> {
+
+    private List<T> contenido;
+    private int tamano;
+    private String siguienteCursor;
+    private Long totalElementos;
+
+    public <R> PaginaCursor<R> map(Function<? super T, ? extends R> mapper) {
+        return PaginaCursor.<R>builder()
+                .contenido(contenido.stream().<R>map(mapper).toList())
+                .tamano(tamano)
+                .siguienteCursor(siguienteCursor)
+                .totalElementos(totalElementos)
+                .build();
+    }
+}
@@ -28,6 +28,9 @@ public class ProductoRequest {
     @PositiveOrZero
     private Integer stock;
 
+    @PositiveOrZero
+    private Integer stockMinimo;
+
     @NotBlank
     private String categoria;
 }
@@ -15,6 +15,7 @@ public class ProductoResponse {
     private BigDecimal precioCompra;
     private BigDecimal precioVenta;
     private Integer stock;
+    private Integer stockMinimo;
     private String categoria;
     private LocalDateTime fechaRegistro;
     private Boolean estado;
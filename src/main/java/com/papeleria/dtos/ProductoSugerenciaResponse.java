@@ -0,0 +1,15 @@
+package com.papeleria.dtos;
+
+import java.math.BigDecimal;
+import lombok.Builder;
+import lombok.Getter;
+
+@Getter
+@Builder
+public class ProductoSugerenciaResponse {
+
+    private Long id;
+    private String nombre;
+    private String categoria;
+    private BigDecimal precioVenta;
+}
@@ -0,0 +1,17 @@
+package com.papeleria.dtos;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import lombok.Builder;
+import lombok.Getter;
+
+@Getter
+@Builder
+public class PuntoSerieResponse {
+
+    private LocalDateTime inicio;
+    private BigDecimal ingresos;
+    private BigDecimal ganancia;
+    private Long ventas;
+    private Long unidades;
+}
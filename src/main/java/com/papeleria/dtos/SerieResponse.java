@@ -0,0 +1,13 @@
+package com.papeleria.dtos;
+
+import java.util.List;
+import lombok.Builder;
+import lombok.Getter;
+
+@Getter
+@Builder
+public class SerieResponse {
+
+    private String grupo;
+    private List<PuntoSerieResponse> puntos;
+}
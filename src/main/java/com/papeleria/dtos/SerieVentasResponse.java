@@ -0,0 +1,14 @@
+package com.papeleria.dtos;
+
+import java.util.List;
+import lombok.Builder;
+import lombok.Getter;
+
+@Getter
+@Builder
+public class SerieVentasResponse {
+
+    private String intervalo;
+    private String agrupacion;
+    private List<SerieResponse> series;
+}
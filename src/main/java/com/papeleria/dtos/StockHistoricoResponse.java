@@ -0,0 +1,15 @@
+package com.papeleria.dtos;
+
+import java.time.LocalDateTime;
+import lombok.Builder;
+import lombok.Getter;
+
+@Getter
+@Builder
+public class StockHistoricoResponse {
+
+    private Long productoId;
+    private String productoNombre;
+    private LocalDateTime fecha;
+    private Integer stock;
+}
@@ -0,0 +1,7 @@
+package com.papeleria.dtos;
+
+public enum TipoAlertaStock {
+    BAJO,
+    RECUPERADO,
+    RETIRADO
+}
@@ -0,0 +1,13 @@
+package com.papeleria.dtos;
+
+import java.math.BigDecimal;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class VentaCursorResponse {
+
+    private PaginaCursor<VentaResponse> ventas;
+    private BigDecimal totalGeneral;
+}
@@ -0,0 +1,7 @@
+package com.papeleria.dtos;
+
+public enum VentaLoteEstado {
+    REGISTRADA,
+    DUPLICADA,
+    RECHAZADA
+}
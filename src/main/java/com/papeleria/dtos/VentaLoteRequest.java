@@ -0,0 +1,16 @@
+package com.papeleria.dtos;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import java.util.List;
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+public class VentaLoteRequest {
+
+    @NotEmpty
+    @Valid
+    private List<VentaOfflineRequest> ventas;
+}
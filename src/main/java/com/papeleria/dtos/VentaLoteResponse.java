@@ -0,0 +1,15 @@
+package com.papeleria.dtos;
+
+import java.util.List;
+import lombok.Builder;
+import lombok.Getter;
+
+@Getter
+@Builder
+public class VentaLoteResponse {
+
+    private long registradas;
+    private long duplicadas;
+    private long rechazadas;
+    private List<VentaLoteResultado> resultados;
+}
@@ -0,0 +1,14 @@
+package com.papeleria.dtos;
+
+import lombok.Builder;
+import lombok.Getter;
+
+@Getter
+@Builder
+public class VentaLoteResultado {
+
+    private String idCliente;
+    private VentaLoteEstado estado;
+    private Long ventaId;
+    private String mensaje;
+}
@@ -0,0 +1,22 @@
+package com.papeleria.dtos;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.PastOrPresent;
+import jakarta.validation.constraints.Size;
+import java.time.LocalDateTime;
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+public class VentaOfflineRequest extends VentaRequest {
+
+    @NotBlank
+    @Size(max = 64)
+    private String idCliente;
+
+    @NotNull
+    @PastOrPresent
+    private LocalDateTime fecha;
+}
@@ -19,6 +19,7 @@ public interface ProductoMapper {
     @Mapping(target = "precioCompra", source = "precioCompra")
     @Mapping(target = "precioVenta", source = "precioVenta")
     @Mapping(target = "stock", source = "stock")
+    @Mapping(target = "stockMinimo", source = "stockMinimo")
     @Mapping(target = "categoria", source = "categoria")
     Producto toEntity(ProductoRequest request);
 
@@ -28,6 +29,7 @@ public interface ProductoMapper {
     @Mapping(target = "precioCompra", source = "precioCompra")
     @Mapping(target = "precioVenta", source = "precioVenta")
     @Mapping(target = "stock", source = "stock")
+    @Mapping(target = "stockMinimo", source = "stockMinimo")
     @Mapping(target = "categoria", source = "categoria")
     @Mapping(target = "fechaRegistro", source = "fechaRegistro")
     @Mapping(target = "estado", source = "estado")
@@ -35,6 +37,10 @@ public interface ProductoMapper {
 
     List<ProductoResponse> toResponseList(List<Producto> productos);
 
+    // stockMinimo se copia aunque venga vacio: asi se quita el minimo propio y el producto vuelve al general.
     @BeanMapping(nullValuePropertyMappingStrategy = NullValuePropertyMappingStrategy.IGNORE)
+    @Mapping(target = "stockMinimo", source = "stockMinimo",
+            nullValuePropertyMappingStrategy = NullValuePropertyMappingStrategy.SET_TO_NULL)
+    @Mapping(target = "stock", ignore = true)
     void updateEntityFromRequest(ProductoRequest request, @MappingTarget Producto producto);
 }
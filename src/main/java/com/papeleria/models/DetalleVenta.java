@@ -42,6 +42,10 @@ public class DetalleVenta {
     @Column(name = "precio_unitario", nullable = false, precision = 10, scale = 2)
     private BigDecimal precioUnitario;
 
+    // Precio de compra del producto al momento de la venta; las ganancias se calculan con este valor.
+    @Column(name = "costo_unitario", precision = 10, scale = 2)
+    private BigDecimal costoUnitario;
+
     @NotNull
     @Positive
     @Column(nullable = false, precision = 12, scale = 2)
@@ -8,6 +8,7 @@ import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.PrePersist;
@@ -26,7 +27,10 @@ import lombok.Setter;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
-@Table(name = "movimientos")
+@Table(name = "movimientos", indexes = {
+        @Index(name = "idx_movimientos_producto_fecha", columnList = "producto_id, fecha_movimiento"),
+        @Index(name = "idx_movimientos_venta", columnList = "venta_id")
+})
 public class Movimiento {
 
     @Id
@@ -50,11 +54,17 @@ public class Movimiento {
     @Column(length = 500)
     private String observacion;
 
+    // Venta que origino el movimiento, para los tipos de venta.
+    @Column(name = "venta_id")
+    private Long ventaId;
+
     @Column(name = "fecha_movimiento", nullable = false, updatable = false)
     private LocalDateTime fechaMovimiento;
 
     @PrePersist
     void prePersist() {
-        fechaMovimiento = LocalDateTime.now();
+        if (fechaMovimiento == null) {
+            fechaMovimiento = LocalDateTime.now();
+        }
     }
 }
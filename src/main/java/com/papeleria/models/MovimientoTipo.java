@@ -1,5 +1,9 @@
 package com.papeleria.models;
 
 public enum MovimientoTipo {
-    INGRESO
+    INGRESO,
+    AJUSTE,
+    VENTA,
+    EDICION_VENTA,
+    ANULACION_VENTA
 }
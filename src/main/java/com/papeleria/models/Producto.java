@@ -1,5 +1,7 @@
 package com.papeleria.models;
 
+import com.papeleria.config.CacheConfig;
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
@@ -17,6 +19,8 @@ import lombok.Builder;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 @Getter
 @Setter
@@ -25,6 +29,8 @@ import lombok.Setter;
 @AllArgsConstructor
 @Entity
 @Table(name = "productos")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = CacheConfig.REGION_PRODUCTOS)
 public class Producto {
 
     @Id
@@ -48,11 +54,18 @@ public class Producto {
     @Column(name = "precio_venta", nullable = false, precision = 10, scale = 2)
     private BigDecimal precioVenta;
 
+    // El stock solo se escribe al crear el producto; despues cambia con updates condicionales por diferencia
+    // (StockService), asi que una edicion con la entidad en cache no pisa una venta.
     @NotNull
     @PositiveOrZero
-    @Column(nullable = false)
+    @Column(nullable = false, updatable = false)
     private Integer stock;
 
+    // Stock desde el cual el producto se considera bajo; si es null se usa el umbral general.
+    @PositiveOrZero
+    @Column(name = "stock_minimo")
+    private Integer stockMinimo;
+
     @NotBlank
     @Column(nullable = false)
     private String categoria;
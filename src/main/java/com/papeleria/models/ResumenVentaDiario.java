@@ -0,0 +1,43 @@
+package com.papeleria.models;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "resumen_ventas_diario",
+        uniqueConstraints = @UniqueConstraint(columnNames = {"fecha", "metodo_pago"}))
+public class ResumenVentaDiario {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private LocalDate fecha;
+
+    @Column(name = "metodo_pago", nullable = false)
+    private String metodoPago;
+
+    @Column(name = "cantidad_ventas", nullable = false)
+    private Long cantidadVentas;
+
+    @Column(nullable = false, precision = 14, scale = 2)
+    private BigDecimal total;
+}
@@ -47,6 +47,9 @@ public class Venta {
     @Column(name = "metodo_pago", nullable = false)
     private String metodoPago;
 
+    @Column(name = "id_cliente", unique = true, length = 64)
+    private String idCliente;
+
     @Builder.Default
     @JsonManagedReference
     @OneToMany(mappedBy = "venta", cascade = CascadeType.ALL, orphanRemoval = true, fetch = FetchType.LAZY)
@@ -0,0 +1,77 @@
+package com.papeleria.repositories;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import java.math.BigDecimal;
+import java.util.List;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.support.JpaEntityInformation;
+import org.springframework.data.jpa.repository.support.SimpleJpaRepository;
+
+public class AgregadoJpaRepository<T, ID> extends SimpleJpaRepository<T, ID> implements AgregadoSpecificationExecutor<T> {
+
+    private final EntityManager entityManager;
+
+    public AgregadoJpaRepository(JpaEntityInformation<T, ?> entityInformation, EntityManager entityManager) {
+        super(entityInformation, entityManager);
+        this.entityManager = entityManager;
+    }
+
+    @Override
+    public ResumenAgregado agregar(Specification<T> spec, String atributo) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Object[]> query = cb.createQuery(Object[].class);
+        Root<T> root = query.from(getDomainClass());
+        Path<? extends Number> campo = root.get(atributo);
+
+        query.multiselect(cb.sum(campo), cb.count(root), cb.min(campo), cb.max(campo));
+
+        if (spec != null) {
+            Predicate predicate = spec.toPredicate(root, query, cb);
+            if (predicate != null) {
+                query.where(predicate);
+            }
+        }
+
+        Object[] fila = entityManager.createQuery(query).getSingleResult();
+        BigDecimal suma = toBigDecimal(fila[0]);
+
+        return ResumenAgregado.builder()
+                .suma(suma != null ? suma : BigDecimal.ZERO)
+                .cantidad(fila[1] != null ? ((Number) fila[1]).longValue() : 0L)
+                .minimo(toBigDecimal(fila[2]))
+                .maximo(toBigDecimal(fila[3]))
+                .build();
+    }
+
+    @Override
+    public Page<T> paginar(Specification<T> spec, Pageable pageable, long total) {
+        if (total == 0 || (pageable.isPaged() && pageable.getOffset() >= total)) {
+            return new PageImpl<>(List.of(), pageable, total);
+        }
+        TypedQuery<T> query = getQuery(spec, pageable);
+        if (pageable.isPaged()) {
+            query.setFirstResult((int) pageable.getOffset());
+            query.setMaxResults(pageable.getPageSize());
+        }
+        return new PageImpl<>(query.getResultList(), pageable, total);
+    }
+
+    private BigDecimal toBigDecimal(Object valor) {
+        if (valor == null) {
+            return null;
+        }
+        if (valor instanceof BigDecimal decimal) {
+            return decimal;
+        }
+        return new BigDecimal(valor.toString());
+    }
+}
@@ -0,0 +1,17 @@
+package com.papeleria.repositories;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+
+/**
+ * Calcula SUM/COUNT/MIN/MAX de un atributo numerico en una sola consulta,
+ * usando los mismos filtros que {@link org.springframework.data.jpa.repository.JpaSpecificationExecutor}.
+ */
+public interface AgregadoSpecificationExecutor<T> {
+
+    ResumenAgregado agregar(Specification<T> spec, String atributo);
+
+    // Pagina con un total ya conocido (por ejemplo, la cantidad de agregar), sin la consulta COUNT adicional.
+    Page<T> paginar(Specification<T> spec, Pageable pageable, long total);
+}
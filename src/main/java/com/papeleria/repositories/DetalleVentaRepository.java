@@ -1,6 +1,10 @@
 package com.papeleria.repositories;
 
 import com.papeleria.models.DetalleVenta;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
@@ -15,4 +19,8 @@ public interface DetalleVentaRepository extends JpaRepository<DetalleVenta, Long
     List<DetalleVenta> findAllByVentaFecha(@Param("fechaActual") LocalDate fechaActual);
 
     List<DetalleVenta> findByVentaId(Long ventaId);
+
+    @Override
+    @EntityGraph(attributePaths = {"producto", "venta"})
+    Page<DetalleVenta> findAll(Specification<DetalleVenta> spec, Pageable pageable);
 }
@@ -8,7 +8,8 @@ import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
-public interface GastoRepository extends JpaRepository<Gasto, Long>, JpaSpecificationExecutor<Gasto> {
+public interface GastoRepository extends JpaRepository<Gasto, Long>, JpaSpecificationExecutor<Gasto>,
+        AgregadoSpecificationExecutor<Gasto> {
 
     @Query("select coalesce(sum(g.monto), 0) from Gasto g where g.fecha between :inicio and :fin")
     BigDecimal sumMontoByFechaBetween(
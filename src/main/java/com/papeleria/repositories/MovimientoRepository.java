@@ -1,8 +1,43 @@
 package com.papeleria.repositories;
 
 import com.papeleria.models.Movimiento;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 public interface MovimientoRepository extends JpaRepository<Movimiento, Long>, JpaSpecificationExecutor<Movimiento> {
+
+    @Override
+    @EntityGraph(attributePaths = "producto")
+    Page<Movimiento> findAll(Specification<Movimiento> spec, Pageable pageable);
+
+    @EntityGraph(attributePaths = "producto")
+    Optional<Movimiento> findWithProductoById(Long id);
+
+    @Query("select m.producto.id, sum(m.cantidad) from Movimiento m "
+            + "where m.producto.id in :productoIds and m.fechaMovimiento <= :hasta group by m.producto.id")
+    List<Object[]> sumarPorProductoHasta(@Param("productoIds") Collection<Long> productoIds,
+                                         @Param("hasta") LocalDateTime hasta);
+
+    @Query("select m.producto.id, sum(m.cantidad) from Movimiento m where m.producto.id in :productoIds "
+            + "and m.fechaMovimiento > :desde and m.fechaMovimiento <= :hasta group by m.producto.id")
+    List<Object[]> sumarPorProductoEntre(@Param("productoIds") Collection<Long> productoIds,
+                                         @Param("desde") LocalDateTime desde,
+                                         @Param("hasta") LocalDateTime hasta);
+
+    @Query("select m from Movimiento m where m.producto.id = :productoId and m.cantidad <> 0 "
+            + "and m.fechaMovimiento > :desde and m.fechaMovimiento <= :hasta order by m.fechaMovimiento, m.id")
+    List<Movimiento> findKardex(@Param("productoId") Long productoId,
+                                @Param("desde") LocalDateTime desde,
+                                @Param("hasta") LocalDateTime hasta,
+                                Pageable pageable);
 }
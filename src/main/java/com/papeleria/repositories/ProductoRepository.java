@@ -1,24 +1,42 @@
 package com.papeleria.repositories;
 
+import static org.hibernate.jpa.HibernateHints.HINT_CACHEABLE;
+import static org.hibernate.jpa.HibernateHints.HINT_CACHE_REGION;
+
+import com.papeleria.config.CacheConfig;
+import com.papeleria.dtos.ProductoFiltro;
 import com.papeleria.models.Producto;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 
 import java.util.List;
 import java.util.Optional;
 
+// Las consultas del catalogo van a la cache de consultas: Hibernate las invalida cuando se escribe un Producto
+// por JPA (altas y ediciones). Los cambios de stock por JDBC no las afectan porque no leen el stock.
 public interface ProductoRepository extends JpaRepository<Producto, Long>, JpaSpecificationExecutor<Producto> {
 
-    List<Producto> findByStockLessThanEqual(Integer stock);
+    @QueryHints({@QueryHint(name = HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HINT_CACHE_REGION, value = CacheConfig.REGION_CONSULTAS_CATALOGO)})
+    @Query("SELECT new com.papeleria.dtos.ProductoFiltro(p.id, p.nombre, p.precioVenta) FROM Producto p ORDER BY p.id")
+    List<ProductoFiltro> findFiltros();
 
-    @Query("SELECT DISTINCT p.nombre FROM Producto p")
-    List<String> findDistinctNombres();
+    @Query("SELECT p.id, p.nombre FROM Producto p")
+    List<Object[]> findIdsYNombres();
 
-    @Query("SELECT DISTINCT p.categoria FROM Producto p")
+    @QueryHints({@QueryHint(name = HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HINT_CACHE_REGION, value = CacheConfig.REGION_CONSULTAS_CATALOGO)})
+    @Query("SELECT DISTINCT p.categoria FROM Producto p ORDER BY p.categoria")
     List<String> findDistinctCategoria();
 
+    @QueryHints({@QueryHint(name = HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HINT_CACHE_REGION, value = CacheConfig.REGION_CONSULTAS_CATALOGO)})
     boolean existsByNombreIgnoreCase(String nombre);
 
+    @QueryHints({@QueryHint(name = HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HINT_CACHE_REGION, value = CacheConfig.REGION_CONSULTAS_CATALOGO)})
     Optional<Producto> findByNombreIgnoreCase(String nombre);
 }
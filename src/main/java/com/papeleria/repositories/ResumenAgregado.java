@@ -0,0 +1,15 @@
+package com.papeleria.repositories;
+
+import java.math.BigDecimal;
+import lombok.Builder;
+import lombok.Getter;
+
+@Getter
+@Builder
+public class ResumenAgregado {
+
+    private final BigDecimal suma;
+    private final Long cantidad;
+    private final BigDecimal minimo;
+    private final BigDecimal maximo;
+}
@@ -0,0 +1,27 @@
+package com.papeleria.repositories;
+
+import com.papeleria.models.ResumenProductoDiario;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+public interface ResumenProductoDiarioRepository extends JpaRepository<ResumenProductoDiario, Long> {
+
+    @Query("select coalesce(sum(r.ingresos - r.costo), 0) from ResumenProductoDiario r where r.fecha between :inicio and :fin")
+    BigDecimal sumGananciaByFechaBetween(@Param("inicio") LocalDate inicio, @Param("fin") LocalDate fin);
+
+    @Query("select r.productoId, sum(r.unidades), sum(r.ingresos) from ResumenProductoDiario r group by r.productoId")
+    List<Object[]> sumarPorProducto();
+
+    @Query("select r.productoId, sum(r.unidades), sum(r.ingresos) from ResumenProductoDiario r where r.fecha >= :desde group by r.productoId")
+    List<Object[]> sumarPorProductoDesde(@Param("desde") LocalDate desde);
+
+    @Query("select r.productoId, p.nombre, sum(r.unidades), sum(r.ingresos) "
+            + "from ResumenProductoDiario r, Producto p where p.id = r.productoId and r.fecha between :inicio and :fin "
+            + "group by r.productoId, p.nombre having sum(r.unidades) > 0 order by sum(r.unidades) desc")
+    List<Object[]> findTopSellingProductsByFechaBetween(@Param("inicio") LocalDate inicio, @Param("fin") LocalDate fin, Pageable pageable);
+}
@@ -0,0 +1,17 @@
+package com.papeleria.repositories;
+
+import com.papeleria.models.ResumenVentaDiario;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+public interface ResumenVentaDiarioRepository extends JpaRepository<ResumenVentaDiario, Long> {
+
+    @Query("select coalesce(sum(r.total), 0) from ResumenVentaDiario r where r.fecha between :inicio and :fin")
+    BigDecimal sumTotalByFechaBetween(@Param("inicio") LocalDate inicio, @Param("fin") LocalDate fin);
+
+    @Query("select coalesce(sum(r.cantidadVentas), 0) from ResumenVentaDiario r where r.fecha between :inicio and :fin")
+    Long sumCantidadVentasByFechaBetween(@Param("inicio") LocalDate inicio, @Param("fin") LocalDate fin);
+}
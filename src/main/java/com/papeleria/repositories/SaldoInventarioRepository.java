@@ -0,0 +1,23 @@
+package com.papeleria.repositories;
+
+import com.papeleria.models.SaldoInventario;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+public interface SaldoInventarioRepository extends JpaRepository<SaldoInventario, Long> {
+
+    @Query("select s from SaldoInventario s where s.productoId in :productoIds and s.fecha = "
+            + "(select max(s2.fecha) from SaldoInventario s2 where s2.productoId = s.productoId and s2.fecha <= :fecha)")
+    List<SaldoInventario> findUltimosHasta(@Param("productoIds") Collection<Long> productoIds,
+                                           @Param("fecha") LocalDateTime fecha);
+
+    @Modifying
+    @Query("delete from SaldoInventario s where s.productoId = :productoId and s.fecha >= :fecha")
+    int deleteByProductoIdAndFechaGreaterThanEqual(@Param("productoId") Long productoId,
+                                                   @Param("fecha") LocalDateTime fecha);
+}
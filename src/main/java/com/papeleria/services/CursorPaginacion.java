@@ -0,0 +1,114 @@
+package com.papeleria.services;
+
+import com.papeleria.dtos.PaginaCursor;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+/**
+ * Paginacion por cursor (keyset) sobre (fecha, id). El cursor es opaco para el cliente: codifica la ultima
+ * fila entregada y la siguiente pagina se obtiene con un WHERE sobre esas columnas, sin OFFSET ni COUNT.
+ */
+public final class CursorPaginacion {
+
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    private CursorPaginacion() {
+    }
+
+    public record Posicion(LocalDateTime fecha, Long id) {
+    }
+
+    public static String codificar(LocalDateTime fecha, Long id) {
+        String valor = fecha + "|" + id;
+        return ENCODER.encodeToString(valor.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static Posicion decodificar(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            String[] partes = new String(DECODER.decode(cursor), StandardCharsets.UTF_8).split("\\|");
+            return new Posicion(LocalDateTime.parse(partes[0]), Long.valueOf(partes[1]));
+        } catch (IllegalArgumentException | DateTimeParseException | ArrayIndexOutOfBoundsException ex) {
+            throw new IllegalArgumentException("El cursor de paginación no es válido.");
+        }
+    }
+
+    public static Sort orden(String rutaFecha, Sort.Direction direccion) {
+        return Sort.by(direccion, rutaFecha).and(Sort.by(direccion, "id"));
+    }
+
+    public static <T> Specification<T> posteriorA(Posicion posicion, String rutaFecha, Sort.Direction direccion) {
+        return (root, query, cb) -> {
+            if (posicion == null) {
+                return cb.conjunction();
+            }
+            Path<?> fecha = resolver(root, rutaFecha);
+            Path<Long> id = root.get("id");
+            // Las columnas de solo fecha (LocalDate) guardan el cursor a medianoche.
+            if (LocalDate.class.equals(fecha.getJavaType())) {
+                @SuppressWarnings("unchecked")
+                Path<LocalDate> dia = (Path<LocalDate>) fecha;
+                return despuesDe(cb, dia, posicion.fecha().toLocalDate(), id, posicion.id(), direccion);
+            }
+            @SuppressWarnings("unchecked")
+            Path<LocalDateTime> momento = (Path<LocalDateTime>) fecha;
+            return despuesDe(cb, momento, posicion.fecha(), id, posicion.id(), direccion);
+        };
+    }
+
+    private static <C extends Comparable<? super C>> Predicate despuesDe(CriteriaBuilder cb, Path<C> fecha, C valor,
+                                                                       Path<Long> id, Long ultimoId,
+                                                                       Sort.Direction direccion) {
+        if (direccion.isAscending()) {
+            return cb.or(
+                    cb.greaterThan(fecha, valor),
+                    cb.and(cb.equal(fecha, valor), cb.greaterThan(id, ultimoId)));
+        }
+        return cb.or(
+                cb.lessThan(fecha, valor),
+                cb.and(cb.equal(fecha, valor), cb.lessThan(id, ultimoId)));
+    }
+
+    /**
+     * Arma la pagina a partir de una consulta que pidio {@code tamano + 1} filas: la fila extra solo indica
+     * que hay una pagina siguiente.
+     */
+    public static <T> PaginaCursor<T> pagina(List<T> filas, int tamano, Function<T, LocalDateTime> fecha,
+                                             Function<T, Long> id, Long totalElementos) {
+        boolean haySiguiente = filas.size() > tamano;
+        List<T> contenido = haySiguiente ? filas.subList(0, tamano) : filas;
+        String siguienteCursor = null;
+        if (haySiguiente) {
+            T ultima = contenido.get(contenido.size() - 1);
+            siguienteCursor = codificar(fecha.apply(ultima), id.apply(ultima));
+        }
+        return PaginaCursor.<T>builder()
+                .contenido(contenido)
+                .tamano(tamano)
+                .siguienteCursor(siguienteCursor)
+                .totalElementos(totalElementos)
+                .build();
+    }
+
+    private static <T> Path<?> resolver(Root<T> root, String ruta) {
+        Path<?> path = root;
+        for (String atributo : ruta.split("\\.")) {
+            path = path.get(atributo);
+        }
+        return path;
+    }
+}
@@ -1,14 +1,18 @@
 package com.papeleria.services;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
 import java.util.List;
-import java.util.stream.Collectors;
 
 import com.papeleria.dtos.FiltrosDTO;
 import com.papeleria.dtos.ProductoFiltro;
-import com.papeleria.models.Producto;
 import com.papeleria.repositories.ProductoRepository;
+import com.papeleria.services.producto.ProductoActualizadoEvent;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
 
 @Service
 public class FiltroService {
@@ -16,19 +20,63 @@ public class FiltroService {
     @Autowired
     private ProductoRepository productoRepository;
 
-    public FiltrosDTO getFiltros() {
-        // 1️⃣ Traemos todos los productos
-        List<Producto> productos = productoRepository.findAll();
+    private volatile CatalogoFiltros catalogo;
+    private long generacion;
 
-        // 2️⃣ Creamos una lista con solo id y nombre
-        List<ProductoFiltro> nombresProductos = productos.stream()
-                .map(p -> new ProductoFiltro(p.getId(), p.getNombre(), p.getPrecioVenta()))
-                .collect(Collectors.toList());
+    public record CatalogoFiltros(FiltrosDTO filtros, String version) {
+    }
+
+    public CatalogoFiltros getCatalogo() {
+        CatalogoFiltros actual = catalogo;
+        if (actual != null) {
+            return actual;
+        }
 
-        // 3️⃣ Traemos las categorías distintas
+        long generacionInicial;
+        synchronized (this) {
+            generacionInicial = generacion;
+        }
+        CatalogoFiltros nuevo = construirCatalogo();
+        synchronized (this) {
+            // Si un producto cambio mientras se consultaba, no se guarda un catalogo que ya nacio viejo.
+            if (generacion == generacionInicial) {
+                catalogo = nuevo;
+            }
+        }
+        return nuevo;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onProductoActualizado(ProductoActualizadoEvent event) {
+        generacion++;
+        catalogo = null;
+    }
+
+    private CatalogoFiltros construirCatalogo() {
+        // 1️⃣ Traemos solo id, nombre y precio de cada producto
+        List<ProductoFiltro> nombresProductos = productoRepository.findFiltros();
+
+        // 2️⃣ Traemos las categorías distintas, ordenadas para que el hash no dependa del orden de la base
         List<String> categoriasProductos = productoRepository.findDistinctCategoria();
 
-        // 4️⃣ Retornamos el DTO completo
-        return new FiltrosDTO(nombresProductos, categoriasProductos);
+        // 3️⃣ La versión es un hash del contenido: si nada cambió, el ETag se mantiene aunque se reinicie la app
+        FiltrosDTO filtros = new FiltrosDTO(nombresProductos, categoriasProductos);
+        return new CatalogoFiltros(filtros, calcularVersion(filtros));
+    }
+
+    private String calcularVersion(FiltrosDTO filtros) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            for (ProductoFiltro producto : filtros.getNombresProductos()) {
+                digest.update((producto.getId() + "|" + producto.getNombre() + "|" + producto.getPrecioVenta() + "\n")
+                        .getBytes(StandardCharsets.UTF_8));
+            }
+            for (String categoria : filtros.getCategoriasProductos()) {
+                digest.update((categoria + "\n").getBytes(StandardCharsets.UTF_8));
+            }
+            return "\"" + HexFormat.of().formatHex(digest.digest(), 0, 16) + "\"";
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(ex);
+        }
     }
-}
\ No newline at end of file
+}
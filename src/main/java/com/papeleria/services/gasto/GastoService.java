@@ -2,13 +2,22 @@ package com.papeleria.services.gasto;
 
 import static com.papeleria.services.gasto.GastoSpecification.descripcionContains;
 import static com.papeleria.services.gasto.GastoSpecification.fechaBetween;
+import static com.papeleria.services.CursorPaginacion.posteriorA;
 
+import com.papeleria.dtos.GastoCursorResponse;
+import com.papeleria.dtos.GastoPageResponse;
+import com.papeleria.dtos.PaginaCursor;
 import com.papeleria.models.Gasto;
 import com.papeleria.repositories.GastoRepository;
+import com.papeleria.repositories.ResumenAgregado;
+import com.papeleria.services.CursorPaginacion;
 import jakarta.persistence.EntityNotFoundException;
 import java.time.LocalDate;
 import java.util.List;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
@@ -21,23 +30,46 @@ public class GastoService {
     @Autowired
     private GastoRepository gastoRepository;
 
+    private static final Sort ORDEN_DEFAULT = Sort.by(Sort.Direction.DESC, "fecha").and(Sort.by("descripcion"));
+
+    // El total y la cantidad salen de una sola consulta agregada, que tambien sirve como conteo de la pagina.
     @Transactional(readOnly = true)
-    public List<Gasto> listar(LocalDate desde, LocalDate hasta, String nombre) {
+    public GastoPageResponse listar(Pageable pageable, LocalDate desde, LocalDate hasta, String nombre) {
+        Specification<Gasto> spec = filtros(desde, hasta, nombre);
+        Sort orden = pageable.getSort().isSorted() ? pageable.getSort() : ORDEN_DEFAULT;
+        Pageable paginaOrdenada = PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(), orden.and(Sort.by("id")));
+
+        ResumenAgregado resumen = gastoRepository.agregar(spec, "monto");
+        Page<Gasto> gastos = gastoRepository.paginar(spec, paginaOrdenada, resumen.getCantidad());
+        return new GastoPageResponse(gastos, resumen.getSuma());
+    }
+
+    @Transactional(readOnly = true)
+    public GastoCursorResponse listarPorCursor(String cursor, int tamano, boolean conteo, LocalDate desde, LocalDate hasta,
+                                               String nombre) {
+        Specification<Gasto> filtros = filtros(desde, hasta, nombre);
+        Specification<Gasto> spec = filtros
+                .and(posteriorA(CursorPaginacion.decodificar(cursor), "fecha", Sort.Direction.DESC));
+
+        List<Gasto> filas = gastoRepository.findBy(spec, query -> query
+                .sortBy(CursorPaginacion.orden("fecha", Sort.Direction.DESC))
+                .limit(tamano + 1)
+                .all());
+
+        ResumenAgregado resumen = conteo ? gastoRepository.agregar(filtros, "monto") : null;
+        PaginaCursor<Gasto> pagina = CursorPaginacion.pagina(filas, tamano, gasto -> gasto.getFecha().atStartOfDay(),
+                Gasto::getId, resumen != null ? resumen.getCantidad() : null);
+        return new GastoCursorResponse(pagina, resumen != null ? resumen.getSuma() : null);
+    }
+
+    private Specification<Gasto> filtros(LocalDate desde, LocalDate hasta, String nombre) {
         boolean sinFiltros = (nombre == null || nombre.isBlank()) && desde == null && hasta == null;
         if (sinFiltros) {
             desde = LocalDate.now();
             hasta = LocalDate.now();
         }
-
-        Specification<Gasto> spec = Specification.where(descripcionContains(nombre))
+        return Specification.where(descripcionContains(nombre))
                 .and(fechaBetween(desde, hasta));
-
-        return gastoRepository.findAll(spec, Sort.by(Sort.Direction.DESC, "fecha").and(Sort.by("descripcion")));
-    }
-
-    @Transactional(readOnly = true)
-    public List<Gasto> listar() {
-        return listar(null, null, null);
     }
 
     @Transactional(readOnly = true)
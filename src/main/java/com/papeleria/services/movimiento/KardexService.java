@@ -0,0 +1,203 @@
+package com.papeleria.services.movimiento;
+
+import com.papeleria.dtos.KardexLineaResponse;
+import com.papeleria.dtos.KardexResponse;
+import com.papeleria.dtos.StockHistoricoResponse;
+import com.papeleria.models.Movimiento;
+import com.papeleria.models.Producto;
+import com.papeleria.models.SaldoInventario;
+import com.papeleria.repositories.MovimientoRepository;
+import com.papeleria.repositories.ProductoRepository;
+import com.papeleria.repositories.SaldoInventarioRepository;
+import jakarta.persistence.EntityNotFoundException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Consultas historicas sobre el kardex. Cada noche se guarda un corte por producto con su stock a medianoche,
+ * asi que el stock en una fecha es el ultimo corte anterior mas los movimientos posteriores a el, sin recorrer
+ * toda la historia. Un corte de un dia incluye lo ocurrido hasta la medianoche inclusive.
+ */
+@Service
+@Transactional
+public class KardexService {
+
+    private static final int MAX_LINEAS_KARDEX = 5000;
+    private static final String OBSERVACION_CONCILIACION = "Conciliacion del inventario al iniciar el kardex";
+
+    // Solo se guarda corte para los productos que se movieron desde el anterior (o que aun no tienen ninguno).
+    private static final String SQL_TOMAR_CORTES =
+            "insert into saldos_inventario (producto_id, fecha, stock) "
+                    + "select p.id, :corte, coalesce(s.stock, 0) + coalesce((select sum(m.cantidad) from movimientos m "
+                    + "where m.producto_id = p.id and m.fecha_movimiento <= :corte "
+                    + "and (s.fecha is null or m.fecha_movimiento > s.fecha)), 0) "
+                    + "from productos p left join saldos_inventario s on s.producto_id = p.id and s.fecha = "
+                    + "(select max(s2.fecha) from saldos_inventario s2 where s2.producto_id = p.id and s2.fecha < :corte) "
+                    + "where not exists (select 1 from saldos_inventario s3 where s3.producto_id = p.id and s3.fecha = :corte) "
+                    + "and (s.id is null or exists (select 1 from movimientos m2 where m2.producto_id = p.id "
+                    + "and m2.fecha_movimiento > s.fecha and m2.fecha_movimiento <= :corte))";
+
+    // Antes del kardex las ventas no dejaban movimiento: se reconstruyen desde sus detalles.
+    private static final String SQL_REGISTRAR_VENTAS_ANTERIORES =
+            "insert into movimientos (producto_id, cantidad, tipo, venta_id, fecha_movimiento) "
+                    + "select d.producto_id, -sum(d.cantidad), 'VENTA', v.id, v.fecha "
+                    + "from detalles_venta d join ventas v on v.id = d.venta_id "
+                    + "where not exists (select 1 from movimientos m where m.venta_id = v.id) "
+                    + "group by v.id, v.fecha, d.producto_id";
+    // Lo que aun no cuadra con el stock se registra como ajuste a la fecha de alta del producto.
+    private static final String SQL_CONCILIAR =
+            "insert into movimientos (producto_id, cantidad, tipo, observacion, fecha_movimiento) "
+                    + "select p.id, p.stock - coalesce(sum(m.cantidad), 0), 'AJUSTE', :observacion, p.fecha_registro "
+                    + "from productos p left join movimientos m on m.producto_id = p.id "
+                    + "group by p.id, p.stock, p.fecha_registro having p.stock <> coalesce(sum(m.cantidad), 0)";
+
+    @Autowired
+    private MovimientoRepository movimientoRepository;
+
+    @Autowired
+    private SaldoInventarioRepository saldoInventarioRepository;
+
+    @Autowired
+    private ProductoRepository productoRepository;
+
+    @Autowired
+    private NamedParameterJdbcTemplate jdbcTemplate;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void alIniciar() {
+        if (saldoInventarioRepository.count() == 0) {
+            jdbcTemplate.update(SQL_REGISTRAR_VENTAS_ANTERIORES, new MapSqlParameterSource());
+            jdbcTemplate.update(SQL_CONCILIAR, new MapSqlParameterSource("observacion", OBSERVACION_CONCILIACION));
+        }
+        tomarCorteDiario();
+    }
+
+    @Scheduled(cron = "${papeleria.inventario.cron-cortes:0 5 0 * * *}")
+    public void tomarCorteDiario() {
+        tomarCortes(LocalDate.now().atStartOfDay());
+    }
+
+    public int tomarCortes(LocalDateTime corte) {
+        return jdbcTemplate.update(SQL_TOMAR_CORTES, new MapSqlParameterSource("corte", corte));
+    }
+
+    @Transactional(readOnly = true)
+    public List<StockHistoricoResponse> stockEn(LocalDateTime fecha, Long productoId) {
+        Map<Long, String> nombres = new LinkedHashMap<>();
+        if (productoId != null) {
+            nombres.put(productoId, buscarProducto(productoId).getNombre());
+        } else {
+            productoRepository.findIdsYNombres().forEach(fila -> nombres.put((Long) fila[0], (String) fila[1]));
+        }
+
+        Map<Long, Integer> stocks = calcularStock(nombres.keySet(), fecha);
+        return nombres.entrySet().stream()
+                .map(entrada -> StockHistoricoResponse.builder()
+                        .productoId(entrada.getKey())
+                        .productoNombre(entrada.getValue())
+                        .fecha(fecha)
+                        .stock(stocks.getOrDefault(entrada.getKey(), 0))
+                        .build())
+                .toList();
+    }
+
+    @Transactional(readOnly = true)
+    public KardexResponse kardex(Long productoId, LocalDate desde, LocalDate hasta) {
+        if (hasta == null) {
+            hasta = LocalDate.now();
+        }
+        if (desde == null) {
+            desde = hasta.withDayOfMonth(1);
+        }
+        if (desde.isAfter(hasta)) {
+            throw new IllegalArgumentException("La fecha desde no puede ser posterior a la fecha hasta.");
+        }
+        Producto producto = buscarProducto(productoId);
+
+        LocalDateTime inicio = desde.atStartOfDay();
+        LocalDateTime fin = hasta.plusDays(1).atStartOfDay();
+        int saldoInicial = calcularStock(List.of(productoId), inicio).getOrDefault(productoId, 0);
+
+        List<Movimiento> movimientos = movimientoRepository.findKardex(productoId, inicio, fin,
+                PageRequest.of(0, MAX_LINEAS_KARDEX + 1));
+        if (movimientos.size() > MAX_LINEAS_KARDEX) {
+            throw new IllegalArgumentException("El rango tiene mas de " + MAX_LINEAS_KARDEX
+                    + " movimientos, reduzca el rango de fechas.");
+        }
+
+        int saldo = saldoInicial;
+        List<KardexLineaResponse> lineas = new ArrayList<>(movimientos.size());
+        for (Movimiento movimiento : movimientos) {
+            saldo += movimiento.getCantidad();
+            lineas.add(KardexLineaResponse.builder()
+                    .movimientoId(movimiento.getId())
+                    .fecha(movimiento.getFechaMovimiento())
+                    .tipo(movimiento.getTipo())
+                    .cantidad(movimiento.getCantidad())
+                    .saldo(saldo)
+                    .ventaId(movimiento.getVentaId())
+                    .observacion(movimiento.getObservacion())
+                    .build());
+        }
+
+        return KardexResponse.builder()
+                .productoId(productoId)
+                .productoNombre(producto.getNombre())
+                .desde(desde)
+                .hasta(hasta)
+                .saldoInicial(saldoInicial)
+                .saldoFinal(saldo)
+                .movimientos(lineas)
+                .build();
+    }
+
+    /**
+     * Parte del ultimo corte de cada producto y suma solo los movimientos posteriores. Los productos se agrupan
+     * por fecha de corte (casi siempre la misma medianoche) para resolver cada grupo con una sola consulta.
+     */
+    private Map<Long, Integer> calcularStock(Collection<Long> productoIds, LocalDateTime fecha) {
+        Map<Long, Integer> stocks = new HashMap<>();
+        if (productoIds.isEmpty()) {
+            return stocks;
+        }
+
+        Map<LocalDateTime, List<Long>> porCorte = new HashMap<>();
+        for (SaldoInventario corte : saldoInventarioRepository.findUltimosHasta(productoIds, fecha)) {
+            stocks.put(corte.getProductoId(), corte.getStock());
+            porCorte.computeIfAbsent(corte.getFecha(), clave -> new ArrayList<>()).add(corte.getProductoId());
+        }
+
+        List<Long> sinCorte = productoIds.stream().filter(id -> !stocks.containsKey(id)).toList();
+        if (!sinCorte.isEmpty()) {
+            sumar(stocks, movimientoRepository.sumarPorProductoHasta(sinCorte, fecha));
+        }
+        porCorte.forEach((corte, ids) -> sumar(stocks, movimientoRepository.sumarPorProductoEntre(ids, corte, fecha)));
+        return stocks;
+    }
+
+    private void sumar(Map<Long, Integer> stocks, List<Object[]> sumas) {
+        for (Object[] fila : sumas) {
+            stocks.merge((Long) fila[0], ((Number) fila[1]).intValue(), Integer::sum);
+        }
+    }
+
+    private Producto buscarProducto(Long productoId) {
+        return productoRepository.findById(productoId)
+                .orElseThrow(() -> new EntityNotFoundException("Producto no encontrado con id: " + productoId));
+    }
+}
@@ -1,44 +1,146 @@
 package com.papeleria.services.movimiento;
 
+import static com.papeleria.services.CursorPaginacion.posteriorA;
 import static com.papeleria.services.movimiento.MovimientoSpecification.cantidadDistintaDeCero;
 import static com.papeleria.services.movimiento.MovimientoSpecification.fechaBetween;
 import static com.papeleria.services.movimiento.MovimientoSpecification.productoIdEquals;
 import static com.papeleria.services.movimiento.MovimientoSpecification.tipoEquals;
 
+import com.papeleria.dtos.PaginaCursor;
 import com.papeleria.models.Movimiento;
 import com.papeleria.models.MovimientoTipo;
 import com.papeleria.models.Producto;
 import com.papeleria.repositories.MovimientoRepository;
+import com.papeleria.repositories.SaldoInventarioRepository;
+import com.papeleria.services.CursorPaginacion;
+import com.papeleria.services.producto.StockService;
 import jakarta.persistence.EntityNotFoundException;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+/**
+ * Kardex del inventario: todo cambio de stock queda como un movimiento tipado, de modo que el stock de un
+ * producto en cualquier fecha es la suma de sus movimientos hasta esa fecha.
+ */
 @Service
 @Transactional
 public class MovimientoService {
 
+    private static final String SQL_INSERTAR =
+            "insert into movimientos (producto_id, cantidad, tipo, observacion, venta_id, fecha_movimiento) "
+                    + "values (:productoId, :cantidad, :tipo, :observacion, :ventaId, :fecha)";
+
+    // Las ventas se corrigen desde la venta; desde aqui solo se editan los movimientos manuales.
+    private static final Set<MovimientoTipo> TIPOS_EDITABLES = EnumSet.of(MovimientoTipo.INGRESO, MovimientoTipo.AJUSTE);
+
     @Autowired
     private MovimientoRepository movimientoRepository;
 
+    @Autowired
+    private SaldoInventarioRepository saldoInventarioRepository;
+
+    @Autowired
+    private NamedParameterJdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private StockService stockService;
+
+    public record Asiento(Long productoId, int cantidad, MovimientoTipo tipo, Long ventaId, LocalDateTime fecha,
+                          String observacion) {
+    }
+
+    // Las cantidades negativas se registran como ajuste.
     public Movimiento registrarIngreso(Producto producto, Integer cantidad, String observacion) {
         Movimiento movimiento = Movimiento.builder()
                 .producto(producto)
                 .cantidad(cantidad)
-                .tipo(MovimientoTipo.INGRESO)
+                .tipo(cantidad < 0 ? MovimientoTipo.AJUSTE : MovimientoTipo.INGRESO)
                 .observacion(observacion)
                 .build();
         return movimientoRepository.save(movimiento);
     }
 
+    public void registrar(Map<Long, Integer> cantidadesPorProducto, MovimientoTipo tipo, Long ventaId, String observacion) {
+        LocalDateTime ahora = LocalDateTime.now();
+        registrar(cantidadesPorProducto.entrySet().stream()
+                .map(entrada -> new Asiento(entrada.getKey(), entrada.getValue(), tipo, ventaId, ahora, observacion))
+                .toList());
+    }
+
+    /**
+     * Inserta los asientos en un solo lote JDBC. Si alguno queda antes de un corte ya tomado (ventas fuera de
+     * linea con fecha pasada), se descartan los cortes afectados de ese producto para que se vuelvan a calcular.
+     */
+    public void registrar(List<Asiento> asientos) {
+        List<Asiento> conCantidad = asientos.stream().filter(asiento -> asiento.cantidad() != 0).toList();
+        if (conCantidad.isEmpty()) {
+            return;
+        }
+
+        SqlParameterSource[] parametros = conCantidad.stream()
+                .map(asiento -> new MapSqlParameterSource()
+                        .addValue("productoId", asiento.productoId())
+                        .addValue("cantidad", asiento.cantidad())
+                        .addValue("tipo", asiento.tipo().name())
+                        .addValue("observacion", asiento.observacion())
+                        .addValue("ventaId", asiento.ventaId())
+                        .addValue("fecha", asiento.fecha()))
+                .toArray(SqlParameterSource[]::new);
+        jdbcTemplate.batchUpdate(SQL_INSERTAR, parametros);
+
+        Map<Long, LocalDateTime> retroactivos = new HashMap<>();
+        for (Asiento asiento : conCantidad) {
+            if (antesDelUltimoCorte(asiento.fecha())) {
+                retroactivos.merge(asiento.productoId(), asiento.fecha(), (a, b) -> a.isBefore(b) ? a : b);
+            }
+        }
+        retroactivos.forEach(this::descartarCortesDesde);
+    }
+
     @Transactional(readOnly = true)
     public Page<Movimiento> buscar(Pageable pageable, Long productoId, MovimientoTipo tipo, LocalDate desde, LocalDate hasta) {
+        Specification<Movimiento> spec = especificacion(productoId, tipo, desde, hasta);
+
+        Sort sort = pageable.getSort().isSorted() ? pageable.getSort() : Sort.by(Sort.Direction.DESC, "fechaMovimiento");
+        Pageable pageableConOrden = PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(), sort);
+
+        return movimientoRepository.findAll(spec, pageableConOrden);
+    }
+
+    @Transactional(readOnly = true)
+    public PaginaCursor<Movimiento> buscarPorCursor(String cursor, int tamano, boolean conteo, Long productoId,
+                                                    MovimientoTipo tipo, LocalDate desde, LocalDate hasta) {
+        Specification<Movimiento> filtros = especificacion(productoId, tipo, desde, hasta);
+        Specification<Movimiento> spec = filtros
+                .and(posteriorA(CursorPaginacion.decodificar(cursor), "fechaMovimiento", Sort.Direction.DESC));
+
+        List<Movimiento> filas = movimientoRepository.findBy(spec, query -> query
+                .sortBy(CursorPaginacion.orden("fechaMovimiento", Sort.Direction.DESC))
+                .project("producto")
+                .limit(tamano + 1)
+                .all());
+
+        Long total = conteo ? movimientoRepository.count(filtros) : null;
+        return CursorPaginacion.pagina(filas, tamano, Movimiento::getFechaMovimiento, Movimiento::getId, total);
+    }
+
+    private Specification<Movimiento> especificacion(Long productoId, MovimientoTipo tipo, LocalDate desde, LocalDate hasta) {
         boolean sinFiltros = productoId == null && tipo == null && desde == null && hasta == null;
         if (sinFiltros) {
             LocalDate hoy = LocalDate.now();
@@ -46,15 +148,10 @@ public class MovimientoService {
             hasta = hoy;
         }
 
-        Specification<Movimiento> spec = Specification.where(cantidadDistintaDeCero())
+        return Specification.where(cantidadDistintaDeCero())
                 .and(productoIdEquals(productoId))
                 .and(tipoEquals(tipo))
                 .and(fechaBetween(desde, hasta));
-
-        Sort sort = pageable.getSort().isSorted() ? pageable.getSort() : Sort.by(Sort.Direction.DESC, "fechaMovimiento");
-        Pageable pageableConOrden = PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(), sort);
-
-        return movimientoRepository.findAll(spec, pageableConOrden);
     }
 
     public Movimiento actualizarMovimiento(Long id, Integer cantidad, String observacion) {
@@ -62,8 +159,7 @@ public class MovimientoService {
             throw new IllegalArgumentException("La cantidad no puede ser cero.");
         }
 
-        Movimiento movimiento = movimientoRepository.findById(id)
-                .orElseThrow(() -> new EntityNotFoundException("Movimiento no encontrado con id: " + id));
+        Movimiento movimiento = buscarEditable(id);
 
         Integer cantidadActual = movimiento.getCantidad();
         if (cantidadActual == null) {
@@ -75,17 +171,12 @@ public class MovimientoService {
             return movimiento;
         }
 
-        Producto producto = movimiento.getProducto();
-        int stockActual = producto.getStock() != null ? producto.getStock() : 0;
-        int diferencia = cantidad - cantidadActual;
-        int nuevoStock = stockActual + diferencia;
-
-        if (nuevoStock < 0) {
-            throw new IllegalArgumentException(
-                    "El stock disponible (" + stockActual + ") es insuficiente para ajustar la cantidad del movimiento.");
+        Long productoId = movimiento.getProducto().getId();
+        if (!stockService.ajustarStock(productoId, cantidad - cantidadActual)) {
+            throw new IllegalArgumentException("El stock disponible (" + stockService.stockActual(productoId)
+                    + ") es insuficiente para ajustar la cantidad del movimiento.");
         }
-
-        producto.setStock(nuevoStock);
+        corregido(movimiento);
         movimiento.setCantidad(cantidad);
         movimiento.setObservacion(observacion);
 
@@ -93,8 +184,7 @@ public class MovimientoService {
     }
 
     public Movimiento eliminarMovimiento(Long id, String observacion) {
-        Movimiento movimiento = movimientoRepository.findById(id)
-                .orElseThrow(() -> new EntityNotFoundException("Movimiento no encontrado con id: " + id));
+        Movimiento movimiento = buscarEditable(id);
 
         Integer cantidadActual = movimiento.getCantidad();
         if (cantidadActual == null || cantidadActual == 0) {
@@ -102,19 +192,41 @@ public class MovimientoService {
             return movimiento;
         }
 
-        Producto producto = movimiento.getProducto();
-        int stockActual = producto.getStock() != null ? producto.getStock() : 0;
-        int nuevoStock = stockActual - cantidadActual;
-
-        if (nuevoStock < 0) {
-            throw new IllegalArgumentException(
-                    "El stock disponible (" + stockActual + ") es insuficiente para revertir el movimiento.");
+        Long productoId = movimiento.getProducto().getId();
+        if (!stockService.ajustarStock(productoId, -cantidadActual)) {
+            throw new IllegalArgumentException("El stock disponible (" + stockService.stockActual(productoId)
+                    + ") es insuficiente para revertir el movimiento.");
         }
-
-        producto.setStock(nuevoStock);
+        corregido(movimiento);
         movimiento.setCantidad(0);
         movimiento.setObservacion(observacion);
 
         return movimiento;
     }
+
+    private Movimiento buscarEditable(Long id) {
+        Movimiento movimiento = movimientoRepository.findWithProductoById(id)
+                .orElseThrow(() -> new EntityNotFoundException("Movimiento no encontrado con id: " + id));
+        if (!TIPOS_EDITABLES.contains(movimiento.getTipo())) {
+            throw new IllegalArgumentException("Los movimientos de tipo " + movimiento.getTipo()
+                    + " se corrigen desde la venta que los origino.");
+        }
+        return movimiento;
+    }
+
+    // Corregir un movimiento cambia la historia desde su fecha: los cortes posteriores dejan de ser validos.
+    private void corregido(Movimiento movimiento) {
+        if (antesDelUltimoCorte(movimiento.getFechaMovimiento())) {
+            descartarCortesDesde(movimiento.getProducto().getId(), movimiento.getFechaMovimiento());
+        }
+    }
+
+    // Los cortes se toman a medianoche, asi que lo posterior a la de hoy nunca esta dentro de uno.
+    private boolean antesDelUltimoCorte(LocalDateTime fecha) {
+        return !fecha.isAfter(LocalDate.now().atStartOfDay());
+    }
+
+    private void descartarCortesDesde(Long productoId, LocalDateTime fecha) {
+        saldoInventarioRepository.deleteByProductoIdAndFechaGreaterThanEqual(productoId, fecha);
+    }
 }
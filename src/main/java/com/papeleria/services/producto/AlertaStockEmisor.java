@@ -0,0 +1,66 @@
+package com.papeleria.services.producto;
+
+import com.papeleria.dtos.AlertaStockResponse;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * Mantiene las conexiones SSE de las pantallas suscritas a las alertas de stock. Los envios salen de un hilo
+ * propio para que un cliente lento no demore la venta que provoco la alerta.
+ */
+@Component
+public class AlertaStockEmisor {
+
+    public static final String EVENTO_INICIAL = "stock-bajo-actual";
+    public static final String EVENTO_ALERTA = "alerta-stock";
+
+    private final List<SseEmitter> suscriptores = new CopyOnWriteArrayList<>();
+    private final ExecutorService envios = Executors.newSingleThreadExecutor(tarea -> {
+        Thread hilo = new Thread(tarea, "alertas-stock");
+        hilo.setDaemon(true);
+        return hilo;
+    });
+
+    @Value("${papeleria.alertas-stock.timeout-ms:1800000}")
+    private long timeoutMs;
+
+    public SseEmitter suscribir(List<AlertaStockResponse> estadoActual) {
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        emitter.onCompletion(() -> suscriptores.remove(emitter));
+        emitter.onTimeout(() -> suscriptores.remove(emitter));
+        emitter.onError(error -> suscriptores.remove(emitter));
+        suscriptores.add(emitter);
+
+        envios.execute(() -> enviar(emitter, EVENTO_INICIAL, estadoActual));
+        return emitter;
+    }
+
+    public void publicar(List<AlertaStockResponse> alertas) {
+        if (alertas.isEmpty() || suscriptores.isEmpty()) {
+            return;
+        }
+        envios.execute(() -> alertas.forEach(alerta -> suscriptores.forEach(emitter -> enviar(emitter, EVENTO_ALERTA, alerta))));
+    }
+
+    @PreDestroy
+    public void cerrar() {
+        envios.shutdownNow();
+        suscriptores.forEach(SseEmitter::complete);
+    }
+
+    private void enviar(SseEmitter emitter, String evento, Object datos) {
+        try {
+            emitter.send(SseEmitter.event().name(evento).data(datos));
+        } catch (IOException | IllegalStateException ex) {
+            // El cliente se desconecto; el emitter se descarta.
+            suscriptores.remove(emitter);
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.papeleria.services.producto;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.papeleria.config.CacheConfig;
+import com.papeleria.dtos.CacheEstadisticaResponse;
+import com.papeleria.models.Producto;
+import jakarta.persistence.EntityManagerFactory;
+import java.util.List;
+import javax.cache.CacheManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Mantiene al dia la cache de segundo nivel de productos. El stock se actualiza con SQL directo, que Hibernate no
+ * ve, asi que se desalojan solo los productos tocados, al escribir y otra vez despues del commit; el resto del
+ * catalogo sigue en cache.
+ */
+@Component
+public class CatalogoCache {
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private CacheManager hibernateCacheManager;
+
+    // Primer desalojo, apenas se escribe el stock y todavia dentro de la transaccion.
+    @EventListener
+    public void onStockEscrito(StockCambiadoEvent event) {
+        desalojar(event);
+    }
+
+    // Segundo desalojo, despues del commit: quita lo que otra transaccion haya vuelto a poner en cache leyendo el
+    // stock anterior mientras esta seguia abierta.
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStockCambiado(StockCambiadoEvent event) {
+        desalojar(event);
+    }
+
+    public List<CacheEstadisticaResponse> estadisticas() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        return List.of(
+                estadistica(CacheConfig.REGION_PRODUCTOS, statistics.getDomainDataRegionStatistics(CacheConfig.REGION_PRODUCTOS)),
+                estadistica(CacheConfig.REGION_CONSULTAS_CATALOGO,
+                        statistics.getQueryRegionStatistics(CacheConfig.REGION_CONSULTAS_CATALOGO)));
+    }
+
+    private void desalojar(StockCambiadoEvent event) {
+        jakarta.persistence.Cache cache = entityManagerFactory.getCache();
+        event.getDiferencias().keySet().forEach(productoId -> cache.evict(Producto.class, productoId));
+    }
+
+    // Tamano y desalojos (por tamano o por tiempo) salen de Caffeine: Hibernate no los conoce en regiones JCache.
+    private CacheEstadisticaResponse estadistica(String region, CacheRegionStatistics regionStatistics) {
+        long aciertos = regionStatistics != null ? regionStatistics.getHitCount() : 0;
+        long fallos = regionStatistics != null ? regionStatistics.getMissCount() : 0;
+        long consultas = aciertos + fallos;
+        Cache<?, ?> cache = hibernateCacheManager.getCache(region).unwrap(Cache.class);
+        return CacheEstadisticaResponse.builder()
+                .region(region)
+                .aciertos(aciertos)
+                .fallos(fallos)
+                .escrituras(regionStatistics != null ? regionStatistics.getPutCount() : 0)
+                .elementos(cache.estimatedSize())
+                .desalojos(cache.stats().evictionCount())
+                .tasaAciertos(consultas > 0 ? (double) aciertos / consultas : 0)
+                .build();
+    }
+}
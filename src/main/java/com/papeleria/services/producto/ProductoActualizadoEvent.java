@@ -0,0 +1,12 @@
+package com.papeleria.services.producto;
+
+import com.papeleria.models.Producto;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class ProductoActualizadoEvent {
+
+    private final Producto producto;
+}
@@ -0,0 +1,200 @@
+package com.papeleria.services.producto;
+
+import com.papeleria.dtos.ProductoSugerenciaResponse;
+import com.papeleria.models.Producto;
+import com.papeleria.repositories.ProductoRepository;
+import java.math.BigDecimal;
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Indice en memoria del catalogo activo para el autocompletado del punto de venta. Nombres y categorias se
+ * normalizan (minusculas, sin tildes ni enie) y se indexan por trigramas, de modo que una busqueda solo
+ * revisa los productos que comparten todos los trigramas del texto escrito.
+ */
+@Component
+public class ProductoBusquedaIndex {
+
+    private static final int TAMANO_NGRAMA = 3;
+    private static final Pattern DIACRITICOS = Pattern.compile("\\p{M}+");
+    private static final Pattern ESPACIOS = Pattern.compile("\\s+");
+
+    private final Map<Long, Entrada> entradas = new ConcurrentHashMap<>();
+    private final Map<String, Set<Long>> trigramas = new ConcurrentHashMap<>();
+
+    @Autowired
+    private ProductoRepository productoRepository;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void reconstruir() {
+        entradas.clear();
+        trigramas.clear();
+        productoRepository.findAll(ProductoSpecification.hasEstado(true)).forEach(this::indexar);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductoActualizado(ProductoActualizadoEvent event) {
+        actualizar(event.getProducto());
+    }
+
+    public synchronized void actualizar(Producto producto) {
+        Entrada anterior = entradas.remove(producto.getId());
+        if (anterior != null) {
+            anterior.trigramas().forEach(trigrama -> {
+                Set<Long> ids = trigramas.get(trigrama);
+                if (ids != null) {
+                    ids.remove(producto.getId());
+                }
+            });
+        }
+        if (Boolean.TRUE.equals(producto.getEstado())) {
+            indexar(producto);
+        }
+    }
+
+    public List<ProductoSugerenciaResponse> buscar(String texto, int limite) {
+        String consulta = normalizar(texto);
+        if (consulta.isEmpty() || limite <= 0) {
+            return List.of();
+        }
+        String[] tokens = consulta.split(" ");
+
+        Collection<Entrada> candidatas = candidatas(tokens);
+        List<Resultado> resultados = new ArrayList<>();
+        for (Entrada entrada : candidatas) {
+            int puntaje = puntuar(entrada, consulta, tokens);
+            if (puntaje > 0) {
+                resultados.add(new Resultado(entrada, puntaje));
+            }
+        }
+
+        return resultados.stream()
+                .sorted(Comparator.comparingInt(Resultado::puntaje).reversed()
+                        .thenComparingInt(resultado -> resultado.entrada().nombreNormalizado().length())
+                        .thenComparing(resultado -> resultado.entrada().nombreNormalizado()))
+                .limit(limite)
+                .map(resultado -> ProductoSugerenciaResponse.builder()
+                        .id(resultado.entrada().id())
+                        .nombre(resultado.entrada().nombre())
+                        .categoria(resultado.entrada().categoria())
+                        .precioVenta(resultado.entrada().precioVenta())
+                        .build())
+                .toList();
+    }
+
+    static String normalizar(String texto) {
+        if (texto == null) {
+            return "";
+        }
+        String sinTildes = DIACRITICOS.matcher(Normalizer.normalize(texto, Normalizer.Form.NFD)).replaceAll("");
+        return ESPACIOS.matcher(sinTildes.toLowerCase(Locale.ROOT).trim()).replaceAll(" ");
+    }
+
+    private Collection<Entrada> candidatas(String[] tokens) {
+        Set<Long> ids = null;
+        for (String token : tokens) {
+            if (token.length() < TAMANO_NGRAMA) {
+                continue;
+            }
+            for (String trigrama : trigramasDe(token)) {
+                Set<Long> postings = trigramas.getOrDefault(trigrama, Set.of());
+                if (ids == null) {
+                    ids = new HashSet<>(postings);
+                } else {
+                    ids.retainAll(postings);
+                }
+                if (ids.isEmpty()) {
+                    return List.of();
+                }
+            }
+        }
+        if (ids == null) {
+            // Solo hay tokens de una o dos letras: el catalogo es pequeno y basta con recorrerlo.
+            return entradas.values();
+        }
+        List<Entrada> candidatas = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            Entrada entrada = entradas.get(id);
+            if (entrada != null) {
+                candidatas.add(entrada);
+            }
+        }
+        return candidatas;
+    }
+
+    private int puntuar(Entrada entrada, String consulta, String[] tokens) {
+        int puntaje = entrada.nombreNormalizado().startsWith(consulta) ? 200 : 0;
+        for (String token : tokens) {
+            if (entrada.nombreNormalizado().startsWith(token)) {
+                puntaje += 100;
+            } else if (algunaPalabraEmpiezaCon(entrada.palabras(), token)) {
+                puntaje += 50;
+            } else if (entrada.nombreNormalizado().contains(token)) {
+                puntaje += 20;
+            } else if (entrada.categoriaNormalizada().contains(token)) {
+                puntaje += 5;
+            } else {
+                return 0;
+            }
+        }
+        return puntaje;
+    }
+
+    private boolean algunaPalabraEmpiezaCon(String[] palabras, String token) {
+        for (String palabra : palabras) {
+            if (palabra.startsWith(token)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void indexar(Producto producto) {
+        String nombre = normalizar(producto.getNombre());
+        String categoria = normalizar(producto.getCategoria());
+        String[] palabras = nombre.split(" ");
+
+        Set<String> gramas = new HashSet<>();
+        for (String palabra : palabras) {
+            gramas.addAll(trigramasDe(palabra));
+        }
+        for (String palabra : categoria.split(" ")) {
+            gramas.addAll(trigramasDe(palabra));
+        }
+
+        Entrada entrada = new Entrada(producto.getId(), producto.getNombre().trim(), producto.getCategoria(),
+                producto.getPrecioVenta(), nombre, categoria, palabras, gramas);
+        entradas.put(entrada.id(), entrada);
+        gramas.forEach(trigrama -> trigramas.computeIfAbsent(trigrama, clave -> ConcurrentHashMap.newKeySet()).add(entrada.id()));
+    }
+
+    private static List<String> trigramasDe(String palabra) {
+        List<String> gramas = new ArrayList<>();
+        for (int i = 0; i + TAMANO_NGRAMA <= palabra.length(); i++) {
+            gramas.add(palabra.substring(i, i + TAMANO_NGRAMA));
+        }
+        return gramas;
+    }
+
+    private record Entrada(Long id, String nombre, String categoria, BigDecimal precioVenta,
+                           String nombreNormalizado, String categoriaNormalizada, String[] palabras,
+                           Set<String> trigramas) {
+    }
+
+    private record Resultado(Entrada entrada, int puntaje) {
+    }
+}
@@ -1,27 +1,37 @@
 package com.papeleria.services.producto;
 
+import com.papeleria.dtos.IngresoMasivoResponse;
 import com.papeleria.dtos.MovimientoEntradaProductoRequest;
 import com.papeleria.dtos.ProductoRequest;
+import com.papeleria.dtos.ProductoSugerenciaResponse;
 import com.papeleria.mappers.producto.ProductoMapper;
+import com.papeleria.models.MovimientoTipo;
 import com.papeleria.models.Producto;
 import com.papeleria.services.movimiento.MovimientoService;
 import com.papeleria.repositories.ProductoRepository;
 import jakarta.persistence.EntityNotFoundException;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.domain.Specification;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
+import java.util.TreeMap;
 
 @Service
 @Transactional
 public class ProductoService {
 
+    private static final int LIMITE_SUGERENCIAS = 50;
+    private static final String SQL_CONSULTAR_STOCK = "select id, stock from productos where id in (:ids)";
+
     @Autowired
     private ProductoRepository productoRepository;
 
@@ -31,6 +41,18 @@ public class ProductoService {
     @Autowired
     private MovimientoService movimientoService;
 
+    @Autowired
+    private ProductoBusquedaIndex productoBusquedaIndex;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private StockService stockService;
+
+    @Autowired
+    private NamedParameterJdbcTemplate jdbcTemplate;
+
     public Page<Producto> buscarTodos(Pageable pageable, String nombre, String categoria, Boolean estado) {
 
         Specification<Producto> spec = Specification.where(ProductoSpecification.hasNombre(nombre))
@@ -45,6 +67,11 @@ public class ProductoService {
         return productoRepository.findAll(spec, pageable);
     }
 
+    @Transactional(readOnly = true)
+    public List<ProductoSugerenciaResponse> autocompletar(String texto, int limite) {
+        return productoBusquedaIndex.buscar(texto, Math.min(limite, LIMITE_SUGERENCIAS));
+    }
+
     public Producto crearProducto(ProductoRequest productoRequest) {
         String nombreNormalizado = normalizeNombre(productoRequest.getNombre());
         if (productoRepository.existsByNombreIgnoreCase(nombreNormalizado)) {
@@ -54,9 +81,11 @@ public class ProductoService {
         productoRequest.setNombre(nombreNormalizado);
         Producto producto = productoMapper.toEntity(productoRequest);
         Producto productoGuardado = productoRepository.save(producto);
+        eventPublisher.publishEvent(new ProductoActualizadoEvent(productoGuardado));
 
         if (productoGuardado.getStock() != null && productoGuardado.getStock() > 0) {
             movimientoService.registrarIngreso(productoGuardado, productoGuardado.getStock(), "Stock inicial del producto");
+            stockService.publicarCambio(Map.of(productoGuardado.getId(), productoGuardado.getStock()));
         }
 
         return productoGuardado;
@@ -76,7 +105,24 @@ public class ProductoService {
         productoRequest.setNombre(nombreNormalizado);
 
         productoMapper.updateEntityFromRequest(productoRequest, producto);
-        return productoRepository.save(producto);
+        Producto productoActualizado = productoRepository.save(producto);
+        eventPublisher.publishEvent(new ProductoActualizadoEvent(productoActualizado));
+
+        // El stock pedido se lleva como diferencia contra el de la base, con el mismo UPDATE condicional que las
+        // ventas e ingresos.
+        if (productoRequest.getStock() != null) {
+            int diferencia = productoRequest.getStock() - stockService.stockActual(id);
+            if (diferencia != 0) {
+                if (!stockService.ajustarStock(id, diferencia)) {
+                    throw new IllegalArgumentException(
+                            "El stock del producto cambio mientras se editaba; consulte el stock actual e intente de nuevo.");
+                }
+                movimientoService.registrar(Map.of(id, diferencia), MovimientoTipo.AJUSTE, null, "Ajuste desde la edicion del producto");
+            }
+            // Solo para la respuesta: la entidad no escribe el stock.
+            productoActualizado.setStock(productoRequest.getStock());
+        }
+        return productoActualizado;
     }
 
     public Producto cambiarEstadoProducto(Long id) {
@@ -84,7 +130,9 @@ public class ProductoService {
                 .orElseThrow(() -> new EntityNotFoundException("Producto no encontrado con id: " + id));
 
         producto.setEstado(!producto.getEstado());
-        return productoRepository.save(producto);
+        Producto productoActualizado = productoRepository.save(producto);
+        eventPublisher.publishEvent(new ProductoActualizadoEvent(productoActualizado));
+        return productoActualizado;
     }
 
     public Producto agregarCantidad(Long id, Integer cantidad, String observacion) {
@@ -95,64 +143,83 @@ public class ProductoService {
         Producto producto = productoRepository.findById(id)
                 .orElseThrow(() -> new EntityNotFoundException("Producto no encontrado con id: " + id));
 
-        int stockActual = producto.getStock() != null ? producto.getStock() : 0;
-        int nuevoStock = stockActual + cantidad;
-        if (nuevoStock < 0) {
-            throw new IllegalArgumentException(
-                    "El stock disponible (" + stockActual + ") es insuficiente para descontar la cantidad solicitada (" + Math.abs(cantidad) + ").");
+        if (!stockService.ajustarStock(id, cantidad)) {
+            throw new IllegalArgumentException("El stock disponible (" + stockService.stockActual(id)
+                    + ") es insuficiente para descontar la cantidad solicitada (" + Math.abs(cantidad) + ").");
         }
-
-        producto.setStock(nuevoStock);
-        Producto productoActualizado = productoRepository.save(producto);
-        movimientoService.registrarIngreso(productoActualizado, cantidad, observacion);
-        return productoActualizado;
+        movimientoService.registrarIngreso(producto, cantidad, observacion);
+        // Solo para la respuesta: la entidad no escribe el stock.
+        producto.setStock(stockService.stockActual(id));
+        return producto;
     }
 
     private String normalizeNombre(String nombre) {
         return nombre == null ? null : nombre.trim();
     }
 
-    public List<Producto> agregarCantidadMasivo(List<MovimientoEntradaProductoRequest> movimientos) {
+    /**
+     * Registra una entrega completa en una sola transaccion: se valida todo contra una lectura escalar del stock
+     * y despues el stock y los movimientos se escriben cada uno en un lote JDBC, sin hidratar los productos.
+     */
+    public IngresoMasivoResponse agregarCantidadMasivo(List<MovimientoEntradaProductoRequest> movimientos) {
         if (movimientos == null || movimientos.isEmpty()) {
             throw new IllegalArgumentException("Debe proporcionar al menos un producto para actualizar.");
         }
 
-        Map<Long, Producto> productosPorId = productoRepository.findAllById(
-                        movimientos.stream()
-                                .map(movimiento -> {
-                                    if (movimiento.getProductoId() == null) {
-                                        throw new IllegalArgumentException("El identificador del producto es obligatorio.");
-                                    }
-                                    return movimiento.getProductoId();
-                                })
-                                .collect(Collectors.toSet()))
-                .stream()
-                .collect(Collectors.toMap(Producto::getId, producto -> producto));
-
-        movimientos.forEach(movimiento -> {
+        Map<Long, Integer> diferencias = new TreeMap<>();
+        for (MovimientoEntradaProductoRequest movimiento : movimientos) {
             Long productoId = movimiento.getProductoId();
-            Producto producto = productosPorId.get(productoId);
-            if (producto == null) {
-                throw new EntityNotFoundException("Producto no encontrado con id: " + productoId);
+            if (productoId == null) {
+                throw new IllegalArgumentException("El identificador del producto es obligatorio.");
             }
-
             Integer cantidad = movimiento.getCantidad();
             if (cantidad == null || cantidad == 0) {
                 throw new IllegalArgumentException("La cantidad no puede ser cero para el producto con id: " + productoId);
             }
+            diferencias.merge(productoId, cantidad, Integer::sum);
+        }
 
-            int stockActual = producto.getStock() != null ? producto.getStock() : 0;
-            int nuevoStock = stockActual + cantidad;
-            if (nuevoStock < 0) {
+        Map<Long, Integer> stockPorId = new HashMap<>();
+        jdbcTemplate.query(SQL_CONSULTAR_STOCK, Map.of("ids", diferencias.keySet()),
+                rs -> {
+                    stockPorId.put(rs.getLong("id"), rs.getInt("stock"));
+                });
+        diferencias.forEach((productoId, diferencia) -> {
+            Integer stockActual = stockPorId.get(productoId);
+            if (stockActual == null) {
+                throw new EntityNotFoundException("Producto no encontrado con id: " + productoId);
+            }
+            if (stockActual + diferencia < 0) {
                 throw new IllegalArgumentException(
                         "El stock disponible para el producto con id " + productoId + " es insuficiente (stock actual: "
-                                + stockActual + ", cantidad solicitada: " + Math.abs(cantidad) + ").");
+                                + stockActual + ", cantidad solicitada: " + Math.abs(diferencia) + ").");
             }
-
-            producto.setStock(nuevoStock);
-            movimientoService.registrarIngreso(producto, cantidad, movimiento.getObservacion());
         });
 
-        return productoRepository.saveAll(productosPorId.values());
+        List<Long> sinAjustar = stockService.ajustarStock(diferencias);
+        if (!sinAjustar.isEmpty()) {
+            // Una venta consumio el stock despues de la validacion.
+            throw new IllegalArgumentException(
+                    "El stock disponible para el producto con id " + sinAjustar.get(0) + " es insuficiente.");
+        }
+
+        LocalDateTime ahora = LocalDateTime.now();
+        movimientoService.registrar(movimientos.stream()
+                .map(movimiento -> new MovimientoService.Asiento(movimiento.getProductoId(), movimiento.getCantidad(),
+                        movimiento.getCantidad() < 0 ? MovimientoTipo.AJUSTE : MovimientoTipo.INGRESO,
+                        null, ahora, movimiento.getObservacion()))
+                .toList());
+
+        return IngresoMasivoResponse.builder()
+                .productos(diferencias.size())
+                .movimientos(movimientos.size())
+                .unidades(diferencias.values().stream().mapToLong(Integer::longValue).sum())
+                .productoIds(List.copyOf(diferencias.keySet()))
+                .build();
+    }
+
+    @Transactional(readOnly = true)
+    public List<Producto> buscarPorIds(List<Long> ids) {
+        return productoRepository.findAllById(ids);
     }
 }
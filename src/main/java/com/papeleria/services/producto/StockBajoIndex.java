@@ -0,0 +1,192 @@
+package com.papeleria.services.producto;
+
+import com.papeleria.dtos.AlertaStockResponse;
+import com.papeleria.dtos.TipoAlertaStock;
+import com.papeleria.models.Producto;
+import com.papeleria.repositories.ProductoRepository;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Stock de los productos en memoria, con los activos ordenados por cantidad, para responder las consultas de
+ * stock bajo sin ir a la base de datos. Se carga al iniciar y despues el stock solo se ajusta con las diferencias
+ * que publica cada operacion que mueve stock, una vez confirmada su transaccion; las ediciones del producto
+ * cambian nombre, minimo y estado, nunca el stock. Cuando un producto cruza su stock minimo se avisa a los
+ * suscriptores de {@link AlertaStockEmisor}.
+ */
+@Component
+public class StockBajoIndex {
+
+    private static final Comparator<Entrada> POR_STOCK =
+            Comparator.comparingInt(Entrada::stock).thenComparing(entrada -> entrada.producto().getId());
+
+    // Todos los productos, tambien los inactivos, para no perder las diferencias de stock mientras lo estan.
+    private final Map<Long, Entrada> entradas = new HashMap<>();
+    // Solo los activos.
+    private final NavigableSet<Entrada> porStock = new TreeSet<>(POR_STOCK);
+
+    @Autowired
+    private ProductoRepository productoRepository;
+
+    @Autowired
+    private AlertaStockEmisor alertaStockEmisor;
+
+    @Value("${papeleria.alertas-stock.umbral-default:3}")
+    private int umbralDefault;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void reconstruir() {
+        entradas.clear();
+        porStock.clear();
+        productoRepository.findAll().forEach(producto -> agregar(copiar(producto)));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductoActualizado(ProductoActualizadoEvent event) {
+        Producto producto = event.getProducto();
+        List<AlertaStockResponse> alertas = new ArrayList<>(1);
+        synchronized (this) {
+            Entrada anterior = quitar(producto.getId());
+            // El stock del evento puede venir de una lectura anterior a otra venta ya aplicada aqui. Un producto
+            // nuevo arranca en cero y su stock inicial llega como diferencia.
+            Producto copia = copiar(producto);
+            copia.setStock(anterior != null ? anterior.stock() : 0);
+            registrarCruce(activa(anterior), activa(agregar(copia)), alertas);
+        }
+        alertaStockEmisor.publicar(alertas);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStockCambiado(StockCambiadoEvent event) {
+        List<AlertaStockResponse> alertas = new ArrayList<>();
+        synchronized (this) {
+            event.getDiferencias().forEach((productoId, diferencia) -> {
+                Entrada anterior = quitar(productoId);
+                if (anterior == null) {
+                    return;
+                }
+                Producto copia = copiar(anterior.producto());
+                copia.setStock(anterior.stock() + diferencia);
+                registrarCruce(activa(anterior), activa(agregar(copia)), alertas);
+            });
+        }
+        alertaStockEmisor.publicar(alertas);
+    }
+
+    // Productos activos con stock menor o igual a su propio minimo, de menor a mayor stock.
+    public synchronized List<Producto> bajoMinimo() {
+        List<Producto> productos = new ArrayList<>();
+        for (Entrada entrada : porStock) {
+            if (entrada.esBajo()) {
+                productos.add(entrada.producto());
+            }
+        }
+        return productos;
+    }
+
+    public synchronized List<Producto> conStockHasta(int umbral) {
+        List<Producto> productos = new ArrayList<>();
+        for (Entrada entrada : porStock) {
+            if (entrada.stock() > umbral) {
+                break;
+            }
+            productos.add(entrada.producto());
+        }
+        return productos;
+    }
+
+    public synchronized List<AlertaStockResponse> alertasActuales() {
+        List<AlertaStockResponse> alertas = new ArrayList<>();
+        for (Entrada entrada : porStock) {
+            if (entrada.esBajo()) {
+                alertas.add(alerta(TipoAlertaStock.BAJO, entrada));
+            }
+        }
+        return alertas;
+    }
+
+    private void registrarCruce(Entrada anterior, Entrada nueva, List<AlertaStockResponse> alertas) {
+        boolean antesBajo = anterior != null && anterior.esBajo();
+        boolean ahoraBajo = nueva != null && nueva.esBajo();
+        if (!antesBajo && ahoraBajo) {
+            alertas.add(alerta(TipoAlertaStock.BAJO, nueva));
+        } else if (antesBajo && nueva == null) {
+            alertas.add(alerta(TipoAlertaStock.RETIRADO, anterior));
+        } else if (antesBajo && !ahoraBajo) {
+            alertas.add(alerta(TipoAlertaStock.RECUPERADO, nueva));
+        } else if (antesBajo && nueva.stock() < anterior.stock()) {
+            // Sigue bajo pero bajo mas: se avisa para que la pantalla muestre la cantidad actual.
+            alertas.add(alerta(TipoAlertaStock.BAJO, nueva));
+        }
+    }
+
+    private Entrada agregar(Producto producto) {
+        int minimo = producto.getStockMinimo() != null ? producto.getStockMinimo() : umbralDefault;
+        Entrada entrada = new Entrada(producto, producto.getStock() != null ? producto.getStock() : 0, minimo);
+        entradas.put(producto.getId(), entrada);
+        if (entrada.activa()) {
+            porStock.add(entrada);
+        }
+        return entrada;
+    }
+
+    private Entrada quitar(Long productoId) {
+        Entrada entrada = entradas.remove(productoId);
+        if (entrada != null) {
+            porStock.remove(entrada);
+        }
+        return entrada;
+    }
+
+    // Para las alertas un producto inactivo es como uno que no esta.
+    private static Entrada activa(Entrada entrada) {
+        return entrada != null && entrada.activa() ? entrada : null;
+    }
+
+    private AlertaStockResponse alerta(TipoAlertaStock tipo, Entrada entrada) {
+        return AlertaStockResponse.builder()
+                .tipo(tipo)
+                .productoId(entrada.producto().getId())
+                .nombre(entrada.producto().getNombre())
+                .stock(entrada.stock())
+                .stockMinimo(entrada.stockMinimo())
+                .build();
+    }
+
+    // Copia desprendida: el indice nunca comparte instancias con un contexto de persistencia.
+    private static Producto copiar(Producto producto) {
+        return Producto.builder()
+                .id(producto.getId())
+                .nombre(producto.getNombre())
+                .descripcion(producto.getDescripcion())
+                .precioCompra(producto.getPrecioCompra())
+                .precioVenta(producto.getPrecioVenta())
+                .stock(producto.getStock())
+                .stockMinimo(producto.getStockMinimo())
+                .categoria(producto.getCategoria())
+                .fechaRegistro(producto.getFechaRegistro())
+                .estado(producto.getEstado())
+                .build();
+    }
+
+    private record Entrada(Producto producto, int stock, int stockMinimo) {
+        boolean activa() {
+            return Boolean.TRUE.equals(producto.getEstado());
+        }
+
+        boolean esBajo() {
+            return stock <= stockMinimo;
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package com.papeleria.services.producto;
+
+import java.util.Map;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+// Diferencia de stock por producto (positiva si entro, negativa si salio) aplicada en una transaccion.
+@Getter
+@AllArgsConstructor
+public class StockCambiadoEvent {
+
+    private final Map<Long, Integer> diferencias;
+}
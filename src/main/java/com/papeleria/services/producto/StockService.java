@@ -0,0 +1,168 @@
+package com.papeleria.services.producto;
+
+import com.papeleria.models.Producto;
+import jakarta.persistence.Cache;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityNotFoundException;
+import jakarta.persistence.PersistenceContext;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import org.hibernate.Session;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+@Service
+@Transactional
+public class StockService {
+
+    private static final String SQL_DESCONTAR_STOCK =
+            "update productos set stock = stock - :cantidad where id = :id and stock >= :cantidad";
+    private static final String SQL_AUMENTAR_STOCK = "update productos set stock = stock + :cantidad where id = :id";
+    private static final String SQL_AJUSTAR_STOCK =
+            "update productos set stock = stock + :cantidad where id = :id and stock + :cantidad >= 0";
+    private static final String SQL_CONSULTAR_STOCK = "select stock from productos where id = :id";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private NamedParameterJdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    // Los productos que estan en la cache de segundo nivel salen de ahi con find; los demas (por ejemplo los que
+    // se acaban de vender, que se desalojan) se traen juntos en una sola consulta.
+    public Map<Long, Producto> cargarProductos(Collection<Long> productoIds) {
+        Cache cache = entityManager.getEntityManagerFactory().getCache();
+        Map<Long, Producto> productosPorId = new HashMap<>();
+        List<Long> faltantes = new ArrayList<>();
+        for (Long productoId : productoIds) {
+            if (cache.contains(Producto.class, productoId)) {
+                productosPorId.put(productoId, entityManager.find(Producto.class, productoId));
+            } else {
+                faltantes.add(productoId);
+            }
+        }
+        if (!faltantes.isEmpty()) {
+            List<Producto> cargados = entityManager.unwrap(Session.class).byMultipleIds(Producto.class).multiLoad(faltantes);
+            for (int i = 0; i < faltantes.size(); i++) {
+                productosPorId.put(faltantes.get(i), cargados.get(i));
+            }
+        }
+        productosPorId.forEach((productoId, producto) -> {
+            if (producto == null) {
+                throw new EntityNotFoundException("Producto no encontrado con ID: " + productoId);
+            }
+        });
+        return productosPorId;
+    }
+
+    /**
+     * Descuenta el stock con un UPDATE condicional por producto (stock >= cantidad), de modo que dos ventas
+     * simultaneas no puedan dejar el stock negativo. Si algun producto no alcanza se reportan todos los
+     * faltantes juntos y la transaccion se revierte completa. Los updates van por JDBC en un solo lote: un update
+     * masivo de JPA vaciaria la cache de segundo nivel de todos los productos en cada venta.
+     */
+    public void descontarStock(Map<Long, Integer> cantidadesPorProducto, Map<Long, Producto> productosPorId) {
+        List<String> faltantes = new ArrayList<>();
+
+        // Se actualiza siempre en orden de id para que dos cajas no se bloqueen mutuamente.
+        List<Long> productoIds = new ArrayList<>(new TreeMap<>(cantidadesPorProducto).keySet());
+        int[] actualizados = jdbcTemplate.batchUpdate(SQL_DESCONTAR_STOCK, parametros(productoIds, cantidadesPorProducto));
+        for (int i = 0; i < actualizados.length; i++) {
+            if (actualizados[i] == 0) {
+                Long productoId = productoIds.get(i);
+                Producto producto = productosPorId.get(productoId);
+                // El stock de la entidad puede venir de la cache; el mensaje muestra el de la base.
+                faltantes.add(producto.getNombre() + " (disponible: " + stockActual(productoId)
+                        + ", solicitado: " + cantidadesPorProducto.get(productoId) + ")");
+            }
+        }
+
+        if (!faltantes.isEmpty()) {
+            throw new IllegalArgumentException("No hay stock suficiente para los productos: " + String.join(", ", faltantes));
+        }
+        Map<Long, Integer> diferencias = new HashMap<>();
+        cantidadesPorProducto.forEach((productoId, cantidad) -> diferencias.put(productoId, -cantidad));
+        publicarCambio(diferencias);
+    }
+
+    public void reponerStock(Map<Long, Integer> cantidadesPorProducto) {
+        if (cantidadesPorProducto.isEmpty()) {
+            return;
+        }
+        List<Long> productoIds = new ArrayList<>(new TreeMap<>(cantidadesPorProducto).keySet());
+        jdbcTemplate.batchUpdate(SQL_AUMENTAR_STOCK, parametros(productoIds, cantidadesPorProducto));
+        publicarCambio(cantidadesPorProducto);
+    }
+
+    /**
+     * Suma la diferencia (positiva o negativa) al stock de un producto con un UPDATE condicional, sin pasar por la
+     * entidad, y avisa el cambio. Devuelve false, sin tocar nada, si el stock quedaria negativo.
+     */
+    public boolean ajustarStock(Long productoId, int diferencia) {
+        int actualizados = jdbcTemplate.update(SQL_AJUSTAR_STOCK, new MapSqlParameterSource()
+                .addValue("id", productoId)
+                .addValue("cantidad", diferencia));
+        if (actualizados == 0) {
+            return false;
+        }
+        publicarCambio(Map.of(productoId, diferencia));
+        return true;
+    }
+
+    /**
+     * Version por lotes de {@link #ajustarStock(Long, int)}: un UPDATE condicional por producto en un solo lote
+     * JDBC, en orden de id. Devuelve los productos que no se ajustaron porque su stock quedaria negativo; si hay
+     * alguno, quien llama debe revertir la transaccion. El cambio se avisa solo cuando se ajustaron todos.
+     */
+    public List<Long> ajustarStock(Map<Long, Integer> diferencias) {
+        List<Long> productoIds = new ArrayList<>(new TreeMap<>(diferencias).keySet());
+        int[] actualizados = jdbcTemplate.batchUpdate(SQL_AJUSTAR_STOCK, parametros(productoIds, diferencias));
+        List<Long> sinAjustar = new ArrayList<>();
+        for (int i = 0; i < actualizados.length; i++) {
+            if (actualizados[i] == 0) {
+                sinAjustar.add(productoIds.get(i));
+            }
+        }
+        if (sinAjustar.isEmpty()) {
+            publicarCambio(diferencias);
+        }
+        return sinAjustar;
+    }
+
+    // Stock en la base, sin pasar por la cache de segundo nivel.
+    public int stockActual(Long productoId) {
+        List<Integer> stock = jdbcTemplate.queryForList(SQL_CONSULTAR_STOCK, Map.of("id", productoId), Integer.class);
+        if (stock.isEmpty()) {
+            throw new EntityNotFoundException("Producto no encontrado con id: " + productoId);
+        }
+        return stock.get(0);
+    }
+
+    private SqlParameterSource[] parametros(List<Long> productoIds, Map<Long, Integer> cantidadesPorProducto) {
+        return productoIds.stream()
+                .map(productoId -> new MapSqlParameterSource()
+                        .addValue("id", productoId)
+                        .addValue("cantidad", cantidadesPorProducto.get(productoId)))
+                .toArray(SqlParameterSource[]::new);
+    }
+
+    // Para los caminos que ajustan el stock por su cuenta por JDBC (o lo fijan al crear el producto) y solo
+    // necesitan avisar.
+    public void publicarCambio(Map<Long, Integer> diferencias) {
+        if (!diferencias.isEmpty()) {
+            eventPublisher.publishEvent(new StockCambiadoEvent(Map.copyOf(diferencias)));
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package com.papeleria.services.reporte;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * Ejecuta en paralelo las consultas independientes de un reporte. Cada consulta corre en un hilo de un pool
+ * acotado y en su propia transaccion de solo lectura (y por tanto su propia conexion), con un tiempo limite que
+ * tambien se aplica como timeout de la sentencia en la base de datos.
+ */
+@Component
+public class ConsultasConcurrentes {
+
+    private final ThreadPoolExecutor executor;
+    private final TransactionTemplate transactionTemplate;
+    private final long timeoutMs;
+    private final MeterRegistry meterRegistry;
+
+    public ConsultasConcurrentes(PlatformTransactionManager transactionManager,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${papeleria.reportes.hilos:8}") int hilos,
+                                 @Value("${papeleria.reportes.timeout-ms:10000}") long timeoutMs) {
+        AtomicInteger contador = new AtomicInteger();
+        // Si el pool y la cola se llenan, la consulta corre en el hilo de la peticion en vez de fallar.
+        this.executor = new ThreadPoolExecutor(hilos, hilos, 60, TimeUnit.SECONDS, new ArrayBlockingQueue<>(hilos * 10),
+                tarea -> {
+                    Thread hilo = new Thread(tarea, "reporte-" + contador.incrementAndGet());
+                    hilo.setDaemon(true);
+                    return hilo;
+                },
+                new ThreadPoolExecutor.CallerRunsPolicy());
+        this.executor.allowCoreThreadTimeOut(true);
+        this.timeoutMs = timeoutMs;
+        this.meterRegistry = meterRegistry;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.transactionTemplate.setTimeout((int) Math.max(1, TimeUnit.MILLISECONDS.toSeconds(timeoutMs + 999)));
+    }
+
+    public Lote nuevoLote() {
+        return new Lote();
+    }
+
+    @PreDestroy
+    public void cerrar() {
+        executor.shutdownNow();
+    }
+
+    public class Lote {
+
+        private final long inicio = System.nanoTime();
+        private final Map<String, Long> tiemposMs = Collections.synchronizedMap(new LinkedHashMap<>());
+        private final List<CompletableFuture<?>> enviadas = new CopyOnWriteArrayList<>();
+
+        public <T> CompletableFuture<T> enviar(String nombre, Supplier<T> consulta) {
+            tiemposMs.put(nombre, null);
+            // La consulta se atribuye a la peticion que la pidio aunque corra en otro hilo.
+            RequestAttributes peticion = RequestContextHolder.getRequestAttributes();
+            CompletableFuture<T> enviada = CompletableFuture.supplyAsync(() -> {
+                long comienzo = System.nanoTime();
+                RequestAttributes anteriores = RequestContextHolder.getRequestAttributes();
+                RequestContextHolder.setRequestAttributes(peticion);
+                try {
+                    return transactionTemplate.execute(status -> consulta.get());
+                } finally {
+                    RequestContextHolder.setRequestAttributes(anteriores);
+                    long duracion = System.nanoTime() - comienzo;
+                    tiemposMs.put(nombre, TimeUnit.NANOSECONDS.toMillis(duracion));
+                    Timer.builder("papeleria.reportes.consulta")
+                            .tag("consulta", nombre)
+                            .register(meterRegistry)
+                            .record(duracion, TimeUnit.NANOSECONDS);
+                }
+            }, executor);
+            enviadas.add(enviada);
+            return enviada;
+        }
+
+        public <T> T obtener(CompletableFuture<T> consulta) {
+            long restanteMs = timeoutMs - TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - inicio);
+            try {
+                return consulta.get(Math.max(0, restanteMs), TimeUnit.MILLISECONDS);
+            } catch (TimeoutException ex) {
+                // Cancelar un CompletableFuture no interrumpe el hilo: las consultas del lote que siguen en la cola ya
+                // no arrancan, y la que esta corriendo la corta el timeout de su transaccion, que Spring aplica como
+                // timeout de la sentencia en la base.
+                enviadas.forEach(enviada -> enviada.cancel(false));
+                throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE,
+                        "El reporte tardó demasiado en generarse, intente con un rango de fechas menor.");
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("La generación del reporte fue interrumpida.", ex);
+            } catch (ExecutionException ex) {
+                if (ex.getCause() instanceof RuntimeException causa) {
+                    throw causa;
+                }
+                throw new IllegalStateException(ex.getCause());
+            }
+        }
+
+        // Milisegundos que tardo cada consulta; null si no termino.
+        public Map<String, Long> getTiemposMs() {
+            synchronized (tiemposMs) {
+                return new LinkedHashMap<>(tiemposMs);
+            }
+        }
+    }
+}
@@ -0,0 +1,294 @@
+package com.papeleria.services.reporte;
+
+import com.papeleria.dtos.ProductoMasVendidoResponse;
+import com.papeleria.repositories.ProductoRepository;
+import com.papeleria.repositories.ResumenProductoDiarioRepository;
+import com.papeleria.services.producto.ProductoActualizadoEvent;
+import java.math.BigDecimal;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Productos mas vendidos de hoy, la semana, el mes y todo el historico, mantenidos en memoria. Cada ventana
+ * guarda un contador por producto que se ajusta con las diferencias del resumen diario (ventas creadas, editadas
+ * o anuladas); el top se recalcula con un heap acotado solo cuando la ventana cambio, asi que leerlo no cuesta
+ * nada. Al cambiar de dia, semana o mes la ventana correspondiente arranca vacia.
+ */
+@Component
+public class MasVendidosIndex {
+
+    public static final int MAXIMO = 50;
+
+    public enum Ventana {
+        HOY,
+        SEMANA,
+        MES,
+        HISTORICO
+    }
+
+    private static final Comparator<Contador> POR_UNIDADES =
+            Comparator.comparingLong(Contador::getUnidades).thenComparing(Contador::getProductoId, Comparator.reverseOrder());
+
+    private final Map<Ventana, EstadoVentana> ventanas = new EnumMap<>(Ventana.class);
+    private final Map<Long, String> nombres = new ConcurrentHashMap<>();
+
+    @Autowired
+    private ResumenProductoDiarioRepository resumenProductoDiarioRepository;
+
+    @Autowired
+    private ProductoRepository productoRepository;
+
+    // Despues de que ResumenDiarioService reconstruya el resumen, que es la fuente del arranque.
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    public synchronized void reconstruir() {
+        nombres.clear();
+        productoRepository.findIdsYNombres().forEach(fila -> nombres.put((Long) fila[0], (String) fila[1]));
+
+        LocalDate hoy = LocalDate.now();
+        for (Ventana ventana : Ventana.values()) {
+            EstadoVentana estado = new EstadoVentana(inicioDe(ventana, hoy));
+            List<Object[]> filas = ventana == Ventana.HISTORICO
+                    ? resumenProductoDiarioRepository.sumarPorProducto()
+                    : resumenProductoDiarioRepository.sumarPorProductoDesde(estado.inicio);
+            filas.forEach(fila -> estado.sumar((Long) fila[0], ((Number) fila[1]).longValue(), (BigDecimal) fila[2]));
+            ventanas.put(ventana, estado);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onVentasResumidas(VentasResumidasEvent event) {
+        LocalDate hoy = LocalDate.now();
+        for (Ventana ventana : Ventana.values()) {
+            EstadoVentana estado = vigente(ventana, hoy);
+            for (VentasResumidasEvent.Aporte aporte : event.getAportes()) {
+                if (ventana == Ventana.HISTORICO || !aporte.fecha().isBefore(estado.inicio)) {
+                    estado.sumar(aporte.productoId(), aporte.unidades(), aporte.ingresos());
+                }
+            }
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onProductoActualizado(ProductoActualizadoEvent event) {
+        String anterior = nombres.put(event.getProducto().getId(), event.getProducto().getNombre());
+        if (!event.getProducto().getNombre().equals(anterior)) {
+            ventanas.values().forEach(estado -> estado.top = null);
+        }
+    }
+
+    public synchronized List<ProductoMasVendidoResponse> getMasVendidos(Ventana ventana, int limite) {
+        List<ProductoMasVendidoResponse> top = vigente(ventana, LocalDate.now()).top();
+        return top.subList(0, Math.min(Math.max(limite, 0), top.size()));
+    }
+
+    // Si el rango pedido coincide con una ventana (hoy, semana o mes en curso), su top sale de aqui.
+    public Optional<List<ProductoMasVendidoResponse>> buscar(LocalDate fechaInicio, LocalDate fechaFin, int limite) {
+        LocalDate hoy = LocalDate.now();
+        for (Ventana ventana : List.of(Ventana.HOY, Ventana.SEMANA, Ventana.MES)) {
+            if (fechaInicio.equals(inicioDe(ventana, hoy)) && !fechaFin.isBefore(hoy) && !fechaFin.isAfter(finDe(ventana, hoy))) {
+                return Optional.of(getMasVendidos(ventana, limite));
+            }
+        }
+        return Optional.empty();
+    }
+
+    private EstadoVentana vigente(Ventana ventana, LocalDate hoy) {
+        LocalDate inicio = inicioDe(ventana, hoy);
+        EstadoVentana estado = ventanas.get(ventana);
+        if (estado == null || !estado.inicio.equals(inicio)) {
+            estado = new EstadoVentana(inicio);
+            ventanas.put(ventana, estado);
+        }
+        return estado;
+    }
+
+    private static LocalDate inicioDe(Ventana ventana, LocalDate hoy) {
+        return switch (ventana) {
+            case HOY -> hoy;
+            case SEMANA -> hoy.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+            case MES -> hoy.withDayOfMonth(1);
+            case HISTORICO -> LocalDate.MIN;
+        };
+    }
+
+    private static LocalDate finDe(Ventana ventana, LocalDate hoy) {
+        return switch (ventana) {
+            case HOY -> hoy;
+            case SEMANA -> hoy.with(TemporalAdjusters.nextOrSame(DayOfWeek.SUNDAY));
+            case MES -> hoy.with(TemporalAdjusters.lastDayOfMonth());
+            case HISTORICO -> LocalDate.MAX;
+        };
+    }
+
+    private class EstadoVentana {
+
+        private final LocalDate inicio;
+        private final Contadores contadores = new Contadores();
+        private List<ProductoMasVendidoResponse> top;
+
+        private EstadoVentana(LocalDate inicio) {
+            this.inicio = inicio;
+        }
+
+        private void sumar(long productoId, long unidades, BigDecimal ingresos) {
+            Contador contador = contadores.obtener(productoId);
+            contador.unidades += unidades;
+            contador.ingresos = contador.ingresos.add(ingresos);
+            if (contador.unidades == 0 && contador.ingresos.signum() == 0) {
+                contadores.quitar(productoId);
+            }
+            top = null;
+        }
+
+        private List<ProductoMasVendidoResponse> top() {
+            if (top == null) {
+                // Heap de minimos con a lo sumo MAXIMO elementos: O(n log k) sobre los productos con ventas.
+                PriorityQueue<Contador> heap = new PriorityQueue<>(MAXIMO + 1, POR_UNIDADES);
+                contadores.forEach(contador -> {
+                    if (contador.unidades > 0) {
+                        heap.offer(contador);
+                        if (heap.size() > MAXIMO) {
+                            heap.poll();
+                        }
+                    }
+                });
+                List<ProductoMasVendidoResponse> resultado = new ArrayList<>(heap.size());
+                while (!heap.isEmpty()) {
+                    Contador contador = heap.poll();
+                    resultado.add(0, ProductoMasVendidoResponse.builder()
+                            .productoId(contador.productoId)
+                            .nombre(nombres.get(contador.productoId))
+                            .cantidadVendida(contador.unidades)
+                            .totalGenerado(contador.ingresos)
+                            .build());
+                }
+                top = List.copyOf(resultado);
+            }
+            return top;
+        }
+    }
+
+    /**
+     * Contadores por id de producto con la llave como long, sin envolverla en Long: direccionamiento abierto con
+     * sondeo lineal sobre dos arreglos paralelos. Al quitar, los siguientes del mismo grupo se corren hacia atras,
+     * asi que no quedan marcas de borrado.
+     */
+    private static final class Contadores {
+
+        private long[] ids = new long[16];
+        private Contador[] valores = new Contador[16];
+        private int tamano;
+
+        private Contador obtener(long productoId) {
+            int celda = celda(productoId);
+            if (valores[celda] == null) {
+                Contador nuevo = new Contador(productoId);
+                ids[celda] = productoId;
+                valores[celda] = nuevo;
+                tamano++;
+                // Se mantiene a lo sumo tres cuartos lleno para que los grupos sean cortos.
+                if (tamano * 4 > ids.length * 3) {
+                    crecer();
+                }
+                return nuevo;
+            }
+            return valores[celda];
+        }
+
+        private void quitar(long productoId) {
+            int vacia = celda(productoId);
+            if (valores[vacia] == null) {
+                return;
+            }
+            valores[vacia] = null;
+            tamano--;
+            int mascara = ids.length - 1;
+            for (int actual = (vacia + 1) & mascara; valores[actual] != null; actual = (actual + 1) & mascara) {
+                int inicial = inicial(ids[actual]);
+                // Se corre a la celda vacia si su celda inicial no queda entre la vacia y la actual (en circulo).
+                boolean alcanzable = vacia <= actual
+                        ? inicial <= vacia || inicial > actual
+                        : inicial <= vacia && inicial > actual;
+                if (alcanzable) {
+                    ids[vacia] = ids[actual];
+                    valores[vacia] = valores[actual];
+                    valores[actual] = null;
+                    vacia = actual;
+                }
+            }
+        }
+
+        private void forEach(Consumer<Contador> accion) {
+            for (Contador contador : valores) {
+                if (contador != null) {
+                    accion.accept(contador);
+                }
+            }
+        }
+
+        // Celda del producto, o la vacia donde iria.
+        private int celda(long productoId) {
+            int mascara = ids.length - 1;
+            int celda = inicial(productoId);
+            while (valores[celda] != null && ids[celda] != productoId) {
+                celda = (celda + 1) & mascara;
+            }
+            return celda;
+        }
+
+        private int inicial(long productoId) {
+            long mezcla = productoId * 0x9E3779B97F4A7C15L;
+            return (int) (mezcla ^ (mezcla >>> 32)) & (ids.length - 1);
+        }
+
+        private void crecer() {
+            Contador[] anteriores = valores;
+            ids = new long[anteriores.length * 2];
+            valores = new Contador[anteriores.length * 2];
+            for (Contador contador : anteriores) {
+                if (contador != null) {
+                    int celda = celda(contador.productoId);
+                    ids[celda] = contador.productoId;
+                    valores[celda] = contador;
+                }
+            }
+        }
+    }
+
+    private static class Contador {
+
+        private final long productoId;
+        private long unidades;
+        private BigDecimal ingresos = BigDecimal.ZERO;
+
+        private Contador(long productoId) {
+            this.productoId = productoId;
+        }
+
+        private long getProductoId() {
+            return productoId;
+        }
+
+        private long getUnidades() {
+            return unidades;
+        }
+    }
+}
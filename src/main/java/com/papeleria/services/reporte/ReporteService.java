@@ -2,23 +2,39 @@ package com.papeleria.services.reporte;
 
 import com.papeleria.dtos.ProductoMasVendidoResponse;
 import com.papeleria.dtos.ProductoResponse;
+import com.papeleria.dtos.PuntoSerieResponse;
 import com.papeleria.dtos.ReporteGeneralResponse;
+import com.papeleria.dtos.SerieResponse;
+import com.papeleria.dtos.SerieVentasResponse;
 import com.papeleria.mappers.producto.ProductoMapper;
 import com.papeleria.models.Producto;
 import com.papeleria.repositories.GastoRepository;
-import com.papeleria.repositories.ProductoRepository;
-import com.papeleria.repositories.VentaRepository;
+import com.papeleria.repositories.ResumenProductoDiarioRepository;
+import com.papeleria.repositories.ResumenVentaDiarioRepository;
+import com.papeleria.services.producto.AlertaStockEmisor;
+import com.papeleria.services.producto.StockBajoIndex;
+import io.micrometer.core.annotation.Timed;
+import jakarta.persistence.EntityManager;
 import java.math.BigDecimal;
+import java.time.DayOfWeek;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.time.LocalTime;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 @Service
 @RequiredArgsConstructor
@@ -26,45 +42,213 @@ import org.springframework.transaction.annotation.Transactional;
 public class ReporteService {
 
     private static final int LIMITE_MAS_VENDIDOS = 10;
-    private static final int UMBRAL_STOCK_BAJO_DEFAULT = 3;
+    private static final int MAX_PUNTOS_SERIE = 1000;
+    private static final String SIN_GRUPO = "";
 
-    private final VentaRepository ventaRepository;
+    public enum Intervalo {
+        HORA,
+        DIA,
+        SEMANA,
+        MES
+    }
+
+    public enum Agrupacion {
+        METODO_PAGO,
+        CATEGORIA
+    }
+
+    private final ResumenVentaDiarioRepository resumenVentaDiarioRepository;
+    private final ResumenProductoDiarioRepository resumenProductoDiarioRepository;
     private final GastoRepository gastoRepository;
-    private final ProductoRepository productoRepository;
+    private final StockBajoIndex stockBajoIndex;
+    private final AlertaStockEmisor alertaStockEmisor;
     private final ProductoMapper productoMapper;
+    private final ConsultasConcurrentes consultasConcurrentes;
+    private final EntityManager entityManager;
+    private final MasVendidosIndex masVendidosIndex;
 
-    public ReporteGeneralResponse getReporteGeneral(LocalDate fechaInicio, LocalDate fechaFin) {
-        LocalDateTime inicio = fechaInicio.atStartOfDay();
-        LocalDateTime fin = fechaFin.atTime(LocalTime.MAX);
+    public record ReporteMedido(ReporteGeneralResponse reporte, Map<String, Long> tiemposMs) {
+    }
 
-        BigDecimal totalGanancias = ventaRepository.sumGananciaByFechaBetween(inicio, fin);
-        BigDecimal totalDineroEnVentas = ventaRepository.sumTotalByFechaBetween(inicio, fin);
-        BigDecimal totalGastos = gastoRepository.sumMontoByFechaBetween(fechaInicio, fechaFin);
-        BigDecimal totalGananciasNetas = totalGanancias.subtract(totalGastos);
-        Long totalVentas = ventaRepository.countByFechaBetween(inicio, fin);
-        List<ProductoMasVendidoResponse> productosMasVendidos = obtenerProductosMasVendidos(inicio, fin);
+    // Los totales salen de los resumenes diarios (ver ResumenDiarioService) y las cinco consultas son
+    // independientes, asi que corren en paralelo, cada una con su conexion. Este hilo no abre transaccion para no
+    // retener una conexion mas mientras espera.
+    @Timed("papeleria.reportes.general")
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public ReporteMedido medirReporteGeneral(LocalDate fechaInicio, LocalDate fechaFin) {
+        ConsultasConcurrentes.Lote lote = consultasConcurrentes.nuevoLote();
+        CompletableFuture<BigDecimal> ganancias = lote.enviar("ganancias",
+            () -> resumenProductoDiarioRepository.sumGananciaByFechaBetween(fechaInicio, fechaFin));
+        CompletableFuture<BigDecimal> dineroEnVentas = lote.enviar("ventas",
+            () -> resumenVentaDiarioRepository.sumTotalByFechaBetween(fechaInicio, fechaFin));
+        CompletableFuture<BigDecimal> gastos = lote.enviar("gastos",
+            () -> gastoRepository.sumMontoByFechaBetween(fechaInicio, fechaFin));
+        CompletableFuture<Long> cantidadVentas = lote.enviar("cantidad",
+            () -> resumenVentaDiarioRepository.sumCantidadVentasByFechaBetween(fechaInicio, fechaFin));
+        CompletableFuture<List<ProductoMasVendidoResponse>> masVendidos = lote.enviar("masVendidos",
+            () -> obtenerProductosMasVendidos(fechaInicio, fechaFin));
 
-        return ReporteGeneralResponse.builder()
-            .totalGanancias(totalGananciasNetas)
+        BigDecimal totalGastos = lote.obtener(gastos);
+        ReporteGeneralResponse reporte = ReporteGeneralResponse.builder()
+            .totalGanancias(lote.obtener(ganancias).subtract(totalGastos))
             .totalGastos(totalGastos)
-            .totalDineroEnVentas(totalDineroEnVentas)
-            .totalVentas(totalVentas)
-            .productosMasVendidos(productosMasVendidos)
+            .totalDineroEnVentas(lote.obtener(dineroEnVentas))
+            .totalVentas(lote.obtener(cantidadVentas))
+            .productosMasVendidos(lote.obtener(masVendidos))
             .build();
+        return new ReporteMedido(reporte, lote.getTiemposMs());
     }
 
+    /**
+     * Serie de ventas por intervalo con una sola consulta agrupada por dia (o por dia y hora). Semanas (lunes a
+     * domingo) y meses se arman sumando dias, y los intervalos sin ventas se devuelven en cero. Con agrupacion
+     * por categoria, una venta cuenta en cada categoria que incluye.
+     */
+    public SerieVentasResponse getSerieVentas(LocalDate fechaInicio, LocalDate fechaFin, Intervalo intervalo,
+                                              Agrupacion agrupacion) {
+        if (fechaFin.isBefore(fechaInicio)) {
+            throw new IllegalArgumentException("La fecha final no puede ser anterior a la fecha inicial.");
+        }
+        List<LocalDateTime> inicios = iniciosDeIntervalo(fechaInicio, fechaFin, intervalo);
+
+        Map<String, Map<LocalDateTime, Acumulado>> porGrupo = new TreeMap<>();
+        for (Object[] fila : consultarSerie(fechaInicio, fechaFin, intervalo, agrupacion)) {
+            LocalDateTime inicio = inicioDeIntervalo((LocalDate) fila[0], (Integer) fila[1], intervalo);
+            String grupo = fila[2] != null ? (String) fila[2] : SIN_GRUPO;
+            porGrupo.computeIfAbsent(grupo, clave -> new HashMap<>())
+                .computeIfAbsent(inicio, clave -> new Acumulado())
+                .sumar(fila);
+        }
+        if (porGrupo.isEmpty() && agrupacion == null) {
+            porGrupo.put(SIN_GRUPO, Map.of());
+        }
+
+        List<SerieResponse> series = new ArrayList<>();
+        porGrupo.forEach((grupo, valores) -> {
+            List<PuntoSerieResponse> puntos = new ArrayList<>(inicios.size());
+            for (LocalDateTime inicio : inicios) {
+                Acumulado acumulado = valores.getOrDefault(inicio, Acumulado.VACIO);
+                puntos.add(PuntoSerieResponse.builder()
+                    .inicio(inicio)
+                    .ingresos(acumulado.ingresos)
+                    .ganancia(acumulado.ganancia)
+                    .ventas(acumulado.ventas)
+                    .unidades(acumulado.unidades)
+                    .build());
+            }
+            series.add(SerieResponse.builder()
+                .grupo(agrupacion != null ? grupo : null)
+                .puntos(puntos)
+                .build());
+        });
+
+        return SerieVentasResponse.builder()
+            .intervalo(intervalo.name())
+            .agrupacion(agrupacion != null ? agrupacion.name() : null)
+            .series(series)
+            .build();
+    }
+
+    // Se responde desde StockBajoIndex. Sin umbral, cada producto se compara con su propio stock minimo.
     public List<ProductoResponse> getProductosConStockBajo(Optional<Integer> umbral) {
-        int umbralStock = umbral.orElse(UMBRAL_STOCK_BAJO_DEFAULT);
-        List<Producto> productos = productoRepository.findByStockLessThanEqual(umbralStock);
+        List<Producto> productos = umbral.map(stockBajoIndex::conStockHasta).orElseGet(stockBajoIndex::bajoMinimo);
         return productoMapper.toResponseList(productos);
     }
 
-    private List<ProductoMasVendidoResponse> obtenerProductosMasVendidos(LocalDateTime inicio, LocalDateTime fin) {
-        return ventaRepository.findTopSellingProductsByFechaBetween(inicio, fin, PageRequest.of(0, LIMITE_MAS_VENDIDOS)).stream()
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public SseEmitter suscribirAlertasStock() {
+        return alertaStockEmisor.suscribir(stockBajoIndex.alertasActuales());
+    }
+
+    public List<ProductoMasVendidoResponse> getMasVendidos(MasVendidosIndex.Ventana ventana, int limite) {
+        return masVendidosIndex.getMasVendidos(ventana, Math.min(limite, MasVendidosIndex.MAXIMO));
+    }
+
+    private List<ProductoMasVendidoResponse> obtenerProductosMasVendidos(LocalDate inicio, LocalDate fin) {
+        Optional<List<ProductoMasVendidoResponse>> enMemoria = masVendidosIndex.buscar(inicio, fin, LIMITE_MAS_VENDIDOS);
+        if (enMemoria.isPresent()) {
+            return enMemoria.get();
+        }
+        return resumenProductoDiarioRepository.findTopSellingProductsByFechaBetween(inicio, fin, PageRequest.of(0, LIMITE_MAS_VENDIDOS)).stream()
             .map(this::mapProductoMasVendido)
             .collect(Collectors.toList());
     }
 
+    private List<Object[]> consultarSerie(LocalDate fechaInicio, LocalDate fechaFin, Intervalo intervalo,
+                                          Agrupacion agrupacion) {
+        String hora = intervalo == Intervalo.HORA ? "extract(hour from v.fecha)" : "cast(null as Integer)";
+        String grupo = agrupacion == Agrupacion.METODO_PAGO ? "v.metodoPago"
+            : agrupacion == Agrupacion.CATEGORIA ? "p.categoria" : "cast(null as String)";
+        String jpql = "select cast(v.fecha as LocalDate), " + hora + ", " + grupo + ", "
+            + "sum(d.subtotal), sum(d.subtotal - d.cantidad * d.costoUnitario), count(distinct v.id), sum(d.cantidad) "
+            + "from DetalleVenta d join d.venta v"
+            + (agrupacion == Agrupacion.CATEGORIA ? " join d.producto p" : "")
+            + " where v.fecha >= :inicio and v.fecha < :fin"
+            + " group by cast(v.fecha as LocalDate)"
+            + (intervalo == Intervalo.HORA ? ", " + hora : "")
+            + (agrupacion != null ? ", " + grupo : "");
+
+        return entityManager.createQuery(jpql, Object[].class)
+            .setParameter("inicio", fechaInicio.atStartOfDay())
+            .setParameter("fin", fechaFin.plusDays(1).atStartOfDay())
+            .getResultList();
+    }
+
+    private List<LocalDateTime> iniciosDeIntervalo(LocalDate fechaInicio, LocalDate fechaFin, Intervalo intervalo) {
+        LocalDateTime inicio = inicioDeIntervalo(fechaInicio, 0, intervalo);
+        LocalDateTime fin = fechaFin.plusDays(1).atStartOfDay();
+        long cantidad = switch (intervalo) {
+            case HORA -> ChronoUnit.HOURS.between(inicio, fin);
+            case DIA -> ChronoUnit.DAYS.between(inicio, fin);
+            case SEMANA -> ChronoUnit.WEEKS.between(inicio, fin.plusDays(6));
+            case MES -> ChronoUnit.MONTHS.between(inicio, fin.plusMonths(1).minusDays(1));
+        };
+        if (cantidad > MAX_PUNTOS_SERIE) {
+            throw new IllegalArgumentException("El rango pedido genera demasiados intervalos (" + cantidad
+                + "), use un intervalo mayor o un rango menor.");
+        }
+
+        List<LocalDateTime> inicios = new ArrayList<>((int) cantidad);
+        for (LocalDateTime actual = inicio; actual.isBefore(fin); actual = siguiente(actual, intervalo)) {
+            inicios.add(actual);
+        }
+        return inicios;
+    }
+
+    private LocalDateTime inicioDeIntervalo(LocalDate fecha, Integer hora, Intervalo intervalo) {
+        return switch (intervalo) {
+            case HORA -> fecha.atTime(hora != null ? hora : 0, 0);
+            case DIA -> fecha.atStartOfDay();
+            case SEMANA -> fecha.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY)).atStartOfDay();
+            case MES -> fecha.withDayOfMonth(1).atStartOfDay();
+        };
+    }
+
+    private LocalDateTime siguiente(LocalDateTime inicio, Intervalo intervalo) {
+        return switch (intervalo) {
+            case HORA -> inicio.plusHours(1);
+            case DIA -> inicio.plusDays(1);
+            case SEMANA -> inicio.plusWeeks(1);
+            case MES -> inicio.plusMonths(1);
+        };
+    }
+
+    private static class Acumulado {
+        private static final Acumulado VACIO = new Acumulado();
+
+        private BigDecimal ingresos = BigDecimal.ZERO;
+        private BigDecimal ganancia = BigDecimal.ZERO;
+        private long ventas;
+        private long unidades;
+
+        private void sumar(Object[] fila) {
+            ingresos = ingresos.add((BigDecimal) fila[3]);
+            ganancia = ganancia.add((BigDecimal) fila[4]);
+            ventas += ((Number) fila[5]).longValue();
+            unidades += ((Number) fila[6]).longValue();
+        }
+    }
+
     private ProductoMasVendidoResponse mapProductoMasVendido(Object[] fila) {
         Long productoId = (Long) fila[0];
         String nombre = (String) fila[1];
@@ -0,0 +1,207 @@
+package com.papeleria.services.reporte;
+
+import com.papeleria.models.DetalleVenta;
+import com.papeleria.models.Venta;
+import com.papeleria.repositories.ResumenVentaDiarioRepository;
+import com.papeleria.repositories.VentaRepository;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Mantiene los resumenes diarios de ventas (por dia y metodo de pago, y por dia, producto y metodo de pago)
+ * que alimentan los reportes. Cada cambio a una venta aplica solo la diferencia sobre las filas del resumen,
+ * dentro de la misma transaccion, con upserts atomicos para que dos cajas no pisen el mismo acumulado.
+ */
+@Service
+@Transactional
+public class ResumenDiarioService {
+
+    public static final String OPCION_RECONSTRUIR = "reconstruir-resumen";
+
+    // values() lo aceptan tanto MySQL 8 (que lo marca como obsoleto) como la H2 en modo MySQL de las pruebas, la
+    // prueba de carga y los benchmarks, asi que en todos lados corre la misma sentencia.
+    private static final String SQL_SUMAR_VENTAS =
+            "insert into resumen_ventas_diario (fecha, metodo_pago, cantidad_ventas, total) "
+                    + "values (:fecha, :metodoPago, :cantidadVentas, :total) "
+                    + "on duplicate key update cantidad_ventas = cantidad_ventas + values(cantidad_ventas), "
+                    + "total = total + values(total)";
+    private static final String SQL_SUMAR_PRODUCTOS =
+            "insert into resumen_productos_diario (fecha, producto_id, metodo_pago, unidades, ingresos, costo, cantidad_ventas) "
+                    + "values (:fecha, :productoId, :metodoPago, :unidades, :ingresos, :costo, :cantidadVentas) "
+                    + "on duplicate key update unidades = unidades + values(unidades), "
+                    + "ingresos = ingresos + values(ingresos), costo = costo + values(costo), "
+                    + "cantidad_ventas = cantidad_ventas + values(cantidad_ventas)";
+
+    private static final String SQL_BORRAR_VENTAS = "delete from resumen_ventas_diario";
+    private static final String SQL_BORRAR_PRODUCTOS = "delete from resumen_productos_diario";
+    private static final String SQL_RECONSTRUIR_VENTAS =
+            "insert into resumen_ventas_diario (fecha, metodo_pago, cantidad_ventas, total) "
+                    + "select cast(v.fecha as date), v.metodo_pago, count(*), sum(v.total) from ventas v "
+                    + "where v.total > 0 group by cast(v.fecha as date), v.metodo_pago";
+    private static final String SQL_RECONSTRUIR_PRODUCTOS =
+            "insert into resumen_productos_diario (fecha, producto_id, metodo_pago, unidades, ingresos, costo, cantidad_ventas) "
+                    + "select cast(v.fecha as date), d.producto_id, v.metodo_pago, sum(d.cantidad), sum(d.subtotal), "
+                    + "sum(d.cantidad * d.costo_unitario), count(distinct v.id) "
+                    + "from detalles_venta d join ventas v on v.id = d.venta_id "
+                    + "group by cast(v.fecha as date), d.producto_id, v.metodo_pago";
+
+    @Autowired
+    private NamedParameterJdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ResumenVentaDiarioRepository resumenVentaDiarioRepository;
+
+    @Autowired
+    private VentaRepository ventaRepository;
+
+    @Autowired
+    private ApplicationArguments argumentos;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    public record LineaResumen(Long productoId, int cantidad, BigDecimal subtotal, BigDecimal costoUnitario) {
+    }
+
+    public record VentaResumen(LocalDate fecha, String metodoPago, BigDecimal total, List<LineaResumen> lineas) {
+    }
+
+    // Foto de lo que una venta aporta al resumen. Se toma antes de modificarla para poder restarla despues.
+    public VentaResumen resumir(Venta venta) {
+        List<LineaResumen> lineas = new ArrayList<>(venta.getDetalles().size());
+        for (DetalleVenta detalle : venta.getDetalles()) {
+            lineas.add(new LineaResumen(detalle.getProducto().getId(), detalle.getCantidad(), detalle.getSubtotal(),
+                    detalle.getCostoUnitario()));
+        }
+        return new VentaResumen(venta.getFecha().toLocalDate(), venta.getMetodoPago(), venta.getTotal(), lineas);
+    }
+
+    public void registrar(VentaResumen anterior, VentaResumen nueva) {
+        aplicar(anterior != null ? List.of(anterior) : List.of(), nueva != null ? List.of(nueva) : List.of());
+    }
+
+    public void registrar(Collection<VentaResumen> nuevas) {
+        aplicar(List.of(), nuevas);
+    }
+
+    /**
+     * Reconstruye ambos resumenes desde ventas y detalles. Sirve para poblarlos la primera vez y para
+     * corregirlos si alguna escritura paso por fuera de este servicio.
+     */
+    public void reconstruir() {
+        jdbcTemplate.getJdbcTemplate().update(SQL_BORRAR_PRODUCTOS);
+        jdbcTemplate.getJdbcTemplate().update(SQL_BORRAR_VENTAS);
+        jdbcTemplate.getJdbcTemplate().update(SQL_RECONSTRUIR_VENTAS);
+        jdbcTemplate.getJdbcTemplate().update(SQL_RECONSTRUIR_PRODUCTOS);
+    }
+
+    // Se ejecuta despues de los CommandLineRunner (asi tambien cubre los datos de ejemplo) y despues de completar
+    // el costo unitario de los detalles antiguos.
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(0)
+    public void alIniciar() {
+        boolean vacio = resumenVentaDiarioRepository.count() == 0 && ventaRepository.count() > 0;
+        if (vacio || argumentos.containsOption(OPCION_RECONSTRUIR)) {
+            reconstruir();
+        }
+    }
+
+    private void aplicar(Collection<VentaResumen> restar, Collection<VentaResumen> sumar) {
+        Map<ClaveVenta, Acumulado> ventas = new LinkedHashMap<>();
+        Map<ClaveProducto, Acumulado> productos = new LinkedHashMap<>();
+        restar.forEach(venta -> acumular(venta, -1, ventas, productos));
+        sumar.forEach(venta -> acumular(venta, 1, ventas, productos));
+
+        SqlParameterSource[] parametrosVentas = ventas.entrySet().stream()
+                .filter(entrada -> !entrada.getValue().esNulo())
+                .map(entrada -> new MapSqlParameterSource()
+                        .addValue("fecha", entrada.getKey().fecha())
+                        .addValue("metodoPago", entrada.getKey().metodoPago())
+                        .addValue("cantidadVentas", entrada.getValue().ventas)
+                        .addValue("total", entrada.getValue().ingresos))
+                .toArray(SqlParameterSource[]::new);
+        SqlParameterSource[] parametrosProductos = productos.entrySet().stream()
+                .filter(entrada -> !entrada.getValue().esNulo())
+                .map(entrada -> new MapSqlParameterSource()
+                        .addValue("fecha", entrada.getKey().fecha())
+                        .addValue("productoId", entrada.getKey().productoId())
+                        .addValue("metodoPago", entrada.getKey().metodoPago())
+                        .addValue("unidades", entrada.getValue().unidades)
+                        .addValue("ingresos", entrada.getValue().ingresos)
+                        .addValue("costo", entrada.getValue().costo)
+                        .addValue("cantidadVentas", entrada.getValue().ventas))
+                .toArray(SqlParameterSource[]::new);
+
+        if (parametrosVentas.length > 0) {
+            jdbcTemplate.batchUpdate(SQL_SUMAR_VENTAS, parametrosVentas);
+        }
+        if (parametrosProductos.length > 0) {
+            jdbcTemplate.batchUpdate(SQL_SUMAR_PRODUCTOS, parametrosProductos);
+            eventPublisher.publishEvent(new VentasResumidasEvent(productos.entrySet().stream()
+                    .filter(entrada -> !entrada.getValue().esNulo())
+                    .map(entrada -> new VentasResumidasEvent.Aporte(entrada.getKey().fecha(), entrada.getKey().productoId(),
+                            entrada.getValue().unidades, entrada.getValue().ingresos))
+                    .toList()));
+        }
+    }
+
+    private void acumular(VentaResumen venta, int signo, Map<ClaveVenta, Acumulado> ventas,
+                          Map<ClaveProducto, Acumulado> productos) {
+        // Una venta anulada queda con total cero y sin detalles: no cuenta como venta en el resumen.
+        if (venta.total().signum() > 0) {
+            Acumulado acumulado = ventas.computeIfAbsent(new ClaveVenta(venta.fecha(), venta.metodoPago()), clave -> new Acumulado());
+            acumulado.ventas += signo;
+            acumulado.ingresos = acumulado.ingresos.add(venta.total().multiply(BigDecimal.valueOf(signo)));
+        }
+
+        Map<Long, Acumulado> porProducto = new LinkedHashMap<>();
+        for (LineaResumen linea : venta.lineas()) {
+            Acumulado acumulado = porProducto.computeIfAbsent(linea.productoId(), id -> new Acumulado());
+            acumulado.unidades += linea.cantidad();
+            acumulado.ingresos = acumulado.ingresos.add(linea.subtotal());
+            acumulado.costo = acumulado.costo.add(linea.costoUnitario().multiply(BigDecimal.valueOf(linea.cantidad())));
+        }
+        porProducto.forEach((productoId, linea) -> {
+            Acumulado acumulado = productos.computeIfAbsent(
+                    new ClaveProducto(venta.fecha(), productoId, venta.metodoPago()), clave -> new Acumulado());
+            BigDecimal factor = BigDecimal.valueOf(signo);
+            acumulado.unidades += signo * linea.unidades;
+            acumulado.ingresos = acumulado.ingresos.add(linea.ingresos.multiply(factor));
+            acumulado.costo = acumulado.costo.add(linea.costo.multiply(factor));
+            acumulado.ventas += signo;
+        });
+    }
+
+    private record ClaveVenta(LocalDate fecha, String metodoPago) {
+    }
+
+    private record ClaveProducto(LocalDate fecha, Long productoId, String metodoPago) {
+    }
+
+    private static class Acumulado {
+        private long ventas;
+        private long unidades;
+        private BigDecimal ingresos = BigDecimal.ZERO;
+        private BigDecimal costo = BigDecimal.ZERO;
+
+        private boolean esNulo() {
+            return ventas == 0 && unidades == 0 && ingresos.signum() == 0 && costo.signum() == 0;
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.papeleria.services.reporte;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+// Diferencias por dia y producto que una transaccion aplico al resumen diario.
+@Getter
+@AllArgsConstructor
+public class VentasResumidasEvent {
+
+    private final List<Aporte> aportes;
+
+    public record Aporte(LocalDate fecha, Long productoId, long unidades, BigDecimal ingresos) {
+    }
+}
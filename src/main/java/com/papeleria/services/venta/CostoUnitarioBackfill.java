@@ -0,0 +1,37 @@
+package com.papeleria.services.venta;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Completa el costo unitario de los detalles registrados antes de que existiera la columna. No hay registro del
+ * precio de compra de entonces, asi que se usa el actual del producto. Trabaja por bloques para no bloquear la
+ * tabla y no hace nada una vez que todos los detalles tienen costo.
+ */
+@Component
+public class CostoUnitarioBackfill {
+
+    private static final int TAMANO_BLOQUE = 1000;
+    private static final String SQL_COMPLETAR =
+            "update detalles_venta set costo_unitario = "
+                    + "(select p.precio_compra from productos p where p.id = detalles_venta.producto_id) "
+                    + "where costo_unitario is null limit " + TAMANO_BLOQUE;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void completar() {
+        int actualizados;
+        do {
+            // Cada update es su propia transaccion (autocommit).
+            actualizados = jdbcTemplate.update(SQL_COMPLETAR);
+        } while (actualizados == TAMANO_BLOQUE);
+    }
+}
@@ -0,0 +1,260 @@
+package com.papeleria.services.venta;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.papeleria.models.DetalleVenta;
+import com.papeleria.models.Producto;
+import com.papeleria.models.Venta;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.context.request.async.CallableProcessingInterceptor;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+/**
+ * Exporta el historial de ventas linea por linea. Las filas se leen como tuplas (sin hidratar entidades) con un
+ * cursor de solo avance y se escriben directo a la respuesta, asi que la memoria no crece con el rango.
+ *
+ * <p>Las exportaciones usan un pool propio, del tamano del limite de exportaciones simultaneas, para no quitarle
+ * conexiones al resto de la aplicacion. En MySQL esas conexiones (y solo esas) llevan useCursorFetch, que hace que
+ * el fetch size se respete con un cursor del servidor.
+ */
+@Service
+public class VentaExportacionService {
+
+    public enum Formato {
+        CSV,
+        NDJSON
+    }
+
+    private static final String CABECERA_CSV =
+            "venta_id,fecha,metodo_pago,total_venta,detalle_id,producto_id,producto,cantidad,precio_unitario,subtotal";
+    private static final int FILAS_POR_FLUSH = 500;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final HikariDataSource conexiones;
+    private final Semaphore exportacionesActivas;
+
+    @Value("${papeleria.exportacion.fetch-size:1000}")
+    private int fetchSize;
+
+    public VentaExportacionService(DataSourceProperties propiedades,
+                                   ObjectProvider<MeterRegistry> meterRegistry,
+                                   @Value("${papeleria.exportacion.max-concurrentes:2}") int maxConcurrentes) {
+        this.conexiones = propiedades.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        this.conexiones.setPoolName("papeleria-exportacion");
+        this.conexiones.setMaximumPoolSize(maxConcurrentes);
+        this.conexiones.setMinimumIdle(0);
+        this.conexiones.setReadOnly(true);
+        this.conexiones.setAutoCommit(false);
+        if (conexiones.getJdbcUrl() != null && conexiones.getJdbcUrl().startsWith("jdbc:mysql:")) {
+            this.conexiones.addDataSourceProperty("useCursorFetch", "true");
+        }
+        meterRegistry.ifAvailable(registry ->
+                conexiones.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(registry)));
+        this.exportacionesActivas = new Semaphore(maxConcurrentes);
+    }
+
+    @PreDestroy
+    public void cerrar() {
+        conexiones.close();
+    }
+
+    public StreamingResponseBody exportar(Specification<Venta> spec, Formato formato) {
+        if (!exportacionesActivas.tryAcquire()) {
+            throw new ResponseStatusException(HttpStatus.TOO_MANY_REQUESTS,
+                    "Ya hay exportaciones en curso, intente de nuevo en unos minutos.");
+        }
+        // El cuerpo corre despues, en otro hilo, y puede no llegar a correr (timeout, error o cliente que se va
+        // antes); el permiso se devuelve una sola vez, en lo que ocurra primero.
+        AtomicBoolean devuelto = new AtomicBoolean();
+        Runnable liberar = () -> {
+            if (devuelto.compareAndSet(false, true)) {
+                exportacionesActivas.release();
+            }
+        };
+        if (RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes peticion) {
+            WebAsyncUtils.getAsyncManager(peticion.getRequest()).registerCallableInterceptor(liberar,
+                    new CallableProcessingInterceptor() {
+                        @Override
+                        public <T> void afterCompletion(NativeWebRequest request, Callable<T> task) {
+                            liberar.run();
+                        }
+                    });
+        }
+        return salida -> {
+            try {
+                escribir(spec, formato, salida);
+            } finally {
+                liberar.run();
+            }
+        };
+    }
+
+    private void escribir(Specification<Venta> spec, Formato formato, OutputStream salida) throws IOException {
+        try (Connection conexion = conexiones.getConnection();
+             Session session = entityManagerFactory.unwrap(SessionFactory.class).withOptions()
+                     .connection(conexion)
+                     .openSession()) {
+            session.setDefaultReadOnly(true);
+            session.setCacheMode(CacheMode.IGNORE);
+            try (Stream<Tuple> filas = consultar(session, spec)) {
+                if (formato == Formato.NDJSON) {
+                    escribirNdjson(filas, salida);
+                } else {
+                    escribirCsv(filas, salida);
+                }
+            } finally {
+                conexion.rollback();
+            }
+        } catch (SQLException ex) {
+            throw new IllegalStateException("No se pudo leer la exportacion de ventas", ex);
+        }
+    }
+
+    private Stream<Tuple> consultar(Session session, Specification<Venta> spec) {
+        CriteriaBuilder cb = session.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<Venta> venta = query.from(Venta.class);
+        Join<Venta, DetalleVenta> detalle = venta.join("detalles");
+        Join<DetalleVenta, Producto> producto = detalle.join("producto");
+
+        query.multiselect(
+                venta.get("id").alias("ventaId"),
+                venta.get("fecha").alias("fecha"),
+                venta.get("metodoPago").alias("metodoPago"),
+                venta.get("total").alias("total"),
+                detalle.get("id").alias("detalleId"),
+                producto.get("id").alias("productoId"),
+                producto.get("nombre").alias("producto"),
+                detalle.get("cantidad").alias("cantidad"),
+                detalle.get("precioUnitario").alias("precioUnitario"),
+                detalle.get("subtotal").alias("subtotal"));
+
+        Predicate predicate = spec.toPredicate(venta, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        query.orderBy(cb.asc(venta.get("fecha")), cb.asc(venta.get("id")), cb.asc(detalle.get("id")));
+
+        return session.createQuery(query)
+                .setHint("org.hibernate.fetchSize", fetchSize)
+                .setHint("org.hibernate.readOnly", true)
+                .getResultStream();
+    }
+
+    private void escribirCsv(Stream<Tuple> filas, OutputStream salida) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(salida, StandardCharsets.UTF_8));
+        writer.write(CABECERA_CSV);
+        writer.write('\n');
+
+        int escritas = 0;
+        for (Tuple fila : (Iterable<Tuple>) filas::iterator) {
+            writer.write(fila.get("ventaId", Long.class).toString());
+            writer.write(',');
+            writer.write(fila.get("fecha", LocalDateTime.class).toString());
+            writer.write(',');
+            writer.write(csv(fila.get("metodoPago", String.class)));
+            writer.write(',');
+            writer.write(fila.get("total", BigDecimal.class).toPlainString());
+            writer.write(',');
+            writer.write(fila.get("detalleId", Long.class).toString());
+            writer.write(',');
+            writer.write(fila.get("productoId", Long.class).toString());
+            writer.write(',');
+            writer.write(csv(fila.get("producto", String.class)));
+            writer.write(',');
+            writer.write(fila.get("cantidad", Integer.class).toString());
+            writer.write(',');
+            writer.write(fila.get("precioUnitario", BigDecimal.class).toPlainString());
+            writer.write(',');
+            writer.write(fila.get("subtotal", BigDecimal.class).toPlainString());
+            writer.write('\n');
+
+            if (++escritas % FILAS_POR_FLUSH == 0) {
+                writer.flush();
+            }
+        }
+        writer.flush();
+    }
+
+    private void escribirNdjson(Stream<Tuple> filas, OutputStream salida) throws IOException {
+        JsonGenerator generator = objectMapper.getFactory().createGenerator(salida);
+        generator.setRootValueSeparator(null);
+
+        int escritas = 0;
+        for (Tuple fila : (Iterable<Tuple>) filas::iterator) {
+            generator.writeStartObject();
+            generator.writeNumberField("ventaId", fila.get("ventaId", Long.class));
+            generator.writeStringField("fecha", fila.get("fecha", LocalDateTime.class).toString());
+            generator.writeStringField("metodoPago", fila.get("metodoPago", String.class));
+            generator.writeNumberField("totalVenta", fila.get("total", BigDecimal.class));
+            generator.writeNumberField("detalleId", fila.get("detalleId", Long.class));
+            generator.writeNumberField("productoId", fila.get("productoId", Long.class));
+            generator.writeStringField("producto", fila.get("producto", String.class));
+            generator.writeNumberField("cantidad", fila.get("cantidad", Integer.class));
+            generator.writeNumberField("precioUnitario", fila.get("precioUnitario", BigDecimal.class));
+            generator.writeNumberField("subtotal", fila.get("subtotal", BigDecimal.class));
+            generator.writeEndObject();
+            generator.writeRaw('\n');
+
+            if (++escritas % FILAS_POR_FLUSH == 0) {
+                generator.flush();
+            }
+        }
+        generator.flush();
+    }
+
+    private String csv(String valor) {
+        if (valor == null) {
+            return "";
+        }
+        if (valor.indexOf(',') < 0 && valor.indexOf('"') < 0 && valor.indexOf('\n') < 0
+                && valor.indexOf('\r') < 0) {
+            return valor;
+        }
+        return '"' + valor.replace("\"", "\"\"") + '"';
+    }
+}
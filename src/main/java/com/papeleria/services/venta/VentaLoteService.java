@@ -0,0 +1,340 @@
+package com.papeleria.services.venta;
+
+import com.papeleria.dtos.DetalleVentaRequest;
+import com.papeleria.dtos.VentaLoteEstado;
+import com.papeleria.dtos.VentaLoteResponse;
+import com.papeleria.dtos.VentaLoteResultado;
+import com.papeleria.dtos.VentaOfflineRequest;
+import com.papeleria.models.MovimientoTipo;
+import com.papeleria.repositories.VentaRepository;
+import com.papeleria.services.movimiento.MovimientoService;
+import com.papeleria.services.producto.StockService;
+import com.papeleria.services.reporte.ResumenDiarioService;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Registra las ventas que una caja acumulo sin conexion. Las ventas se procesan en bloques, cada uno en su
+ * propia transaccion y escrito con inserts JDBC por lotes. El idCliente hace que reenviar el mismo lote no
+ * duplique ventas.
+ */
+@Service
+public class VentaLoteService {
+
+    private static final String SQL_CONSULTAR_PRODUCTOS =
+            "select id, nombre, precio_compra, precio_venta, stock from productos where id in (:ids)";
+    private static final String SQL_DESCONTAR_STOCK =
+            "update productos set stock = stock - :cantidad where id = :id and stock >= :cantidad";
+    private static final String SQL_INSERTAR_VENTA =
+            "insert into ventas (fecha, total, metodo_pago, id_cliente) values (:fecha, :total, :metodoPago, :idCliente)";
+    private static final String SQL_INSERTAR_DETALLE =
+            "insert into detalles_venta (venta_id, producto_id, cantidad, precio_unitario, costo_unitario, subtotal) "
+                    + "values (:ventaId, :productoId, :cantidad, :precioUnitario, :costoUnitario, :subtotal)";
+
+    @Autowired
+    private VentaRepository ventaRepository;
+
+    @Autowired
+    private NamedParameterJdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ResumenDiarioService resumenDiarioService;
+
+    @Autowired
+    private StockService stockService;
+
+    @Autowired
+    private MovimientoService movimientoService;
+
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${papeleria.ventas.lote.tamano-bloque:100}")
+    private int tamanoBloque;
+
+    public VentaLoteService(PlatformTransactionManager transactionManager) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    public VentaLoteResponse registrarLote(List<VentaOfflineRequest> ventas) {
+        VentaLoteResultado[] resultados = new VentaLoteResultado[ventas.size()];
+        List<Integer> pendientes = new ArrayList<>();
+        Set<String> idsVistos = new HashSet<>();
+
+        for (int i = 0; i < ventas.size(); i++) {
+            String idCliente = ventas.get(i).getIdCliente();
+            if (idsVistos.add(idCliente)) {
+                pendientes.add(i);
+            } else {
+                resultados[i] = resultado(idCliente, VentaLoteEstado.DUPLICADA, null, "Venta repetida dentro del lote.");
+            }
+        }
+
+        for (int inicio = 0; inicio < pendientes.size(); inicio += tamanoBloque) {
+            List<Integer> bloque = pendientes.subList(inicio, Math.min(inicio + tamanoBloque, pendientes.size()));
+            procesarBloque(ventas, bloque, resultados);
+        }
+
+        List<VentaLoteResultado> lista = Arrays.asList(resultados);
+        return VentaLoteResponse.builder()
+                .registradas(contar(lista, VentaLoteEstado.REGISTRADA))
+                .duplicadas(contar(lista, VentaLoteEstado.DUPLICADA))
+                .rechazadas(contar(lista, VentaLoteEstado.RECHAZADA))
+                .resultados(lista)
+                .build();
+    }
+
+    private void procesarBloque(List<VentaOfflineRequest> ventas, List<Integer> bloque, VentaLoteResultado[] resultados) {
+        try {
+            Map<Integer, VentaLoteResultado> resultadosBloque =
+                    transactionTemplate.execute(status -> registrarBloque(ventas, bloque));
+            resultadosBloque.forEach((indice, resultado) -> resultados[indice] = resultado);
+        } catch (ConflictoStockException ex) {
+            // Otra caja consumio stock mientras se validaba el bloque: se reintenta venta por venta.
+            if (bloque.size() == 1) {
+                Integer indice = bloque.get(0);
+                resultados[indice] = resultado(ventas.get(indice).getIdCliente(), VentaLoteEstado.RECHAZADA, null, ex.getMessage());
+                return;
+            }
+            bloque.forEach(indice -> procesarBloque(ventas, List.of(indice), resultados));
+        } catch (DuplicateKeyException ex) {
+            // Otro envio del mismo lote registro alguna de estas ventas (uk_ventas_id_cliente) entre la consulta de
+            // existentes y el insert: venta por venta, la reintentada ya la encuentra y queda como duplicada.
+            if (bloque.size() == 1) {
+                Integer indice = bloque.get(0);
+                resultados[indice] = resultado(ventas.get(indice).getIdCliente(), VentaLoteEstado.DUPLICADA, null,
+                        "La venta ya habia sido sincronizada.");
+                return;
+            }
+            bloque.forEach(indice -> procesarBloque(ventas, List.of(indice), resultados));
+        }
+    }
+
+    private Map<Integer, VentaLoteResultado> registrarBloque(List<VentaOfflineRequest> ventas, List<Integer> bloque) {
+        Map<Integer, VentaLoteResultado> resultados = new LinkedHashMap<>();
+
+        Map<String, Long> ventasExistentes = ventaRepository.findIdsByIdClienteIn(
+                        bloque.stream().map(indice -> ventas.get(indice).getIdCliente()).toList())
+                .stream()
+                .collect(Collectors.toMap(fila -> (String) fila[0], fila -> (Long) fila[1]));
+
+        Set<Long> productoIds = bloque.stream()
+                .flatMap(indice -> ventas.get(indice).getDetalles().stream())
+                .map(DetalleVentaRequest::getProductoId)
+                .collect(Collectors.toSet());
+        Map<Long, ProductoLote> productosPorId = cargarProductos(productoIds);
+        Map<Long, Integer> stockDisponible = new HashMap<>();
+        productosPorId.values().forEach(producto -> stockDisponible.put(producto.id(), producto.stock()));
+
+        Map<Long, Integer> descuentos = new TreeMap<>();
+        List<Integer> aceptadas = new ArrayList<>();
+
+        for (Integer indice : bloque) {
+            VentaOfflineRequest venta = ventas.get(indice);
+            Long ventaExistente = ventasExistentes.get(venta.getIdCliente());
+            if (ventaExistente != null) {
+                resultados.put(indice, resultado(venta.getIdCliente(), VentaLoteEstado.DUPLICADA, ventaExistente,
+                        "La venta ya habia sido sincronizada."));
+                continue;
+            }
+
+            String error = validarVenta(venta, productosPorId, stockDisponible);
+            if (error != null) {
+                resultados.put(indice, resultado(venta.getIdCliente(), VentaLoteEstado.RECHAZADA, null, error));
+                continue;
+            }
+
+            venta.getDetalles().forEach(detalle -> {
+                stockDisponible.merge(detalle.getProductoId(), -detalle.getCantidad(), Integer::sum);
+                descuentos.merge(detalle.getProductoId(), detalle.getCantidad(), Integer::sum);
+            });
+            aceptadas.add(indice);
+        }
+
+        if (aceptadas.isEmpty()) {
+            return resultados;
+        }
+
+        descontarStock(descuentos, productosPorId);
+        List<Long> ventaIds = insertarVentas(ventas, aceptadas, productosPorId);
+        insertarDetalles(ventas, aceptadas, ventaIds, productosPorId);
+        registrarMovimientos(ventas, aceptadas, ventaIds);
+        resumenDiarioService.registrar(aceptadas.stream()
+                .map(indice -> resumir(ventas.get(indice), productosPorId))
+                .toList());
+
+        for (int i = 0; i < aceptadas.size(); i++) {
+            Integer indice = aceptadas.get(i);
+            resultados.put(indice, resultado(ventas.get(indice).getIdCliente(), VentaLoteEstado.REGISTRADA, ventaIds.get(i), null));
+        }
+        return resultados;
+    }
+
+    // Consulta escalar: no hidrata entidades y siempre lee el stock actual, aunque el contexto de persistencia
+    // conserve productos cargados en un bloque anterior.
+    private Map<Long, ProductoLote> cargarProductos(Set<Long> productoIds) {
+        return jdbcTemplate.query(SQL_CONSULTAR_PRODUCTOS, Map.of("ids", productoIds),
+                        (rs, rowNum) -> new ProductoLote(
+                                rs.getLong("id"),
+                                rs.getString("nombre"),
+                                rs.getBigDecimal("precio_compra"),
+                                rs.getBigDecimal("precio_venta"),
+                                rs.getInt("stock")))
+                .stream()
+                .collect(Collectors.toMap(ProductoLote::id, producto -> producto));
+    }
+
+    private String validarVenta(VentaOfflineRequest venta, Map<Long, ProductoLote> productosPorId, Map<Long, Integer> stockDisponible) {
+        Map<Long, Integer> cantidades = new LinkedHashMap<>();
+        for (DetalleVentaRequest detalle : venta.getDetalles()) {
+            if (detalle.getCantidad() <= 0) {
+                return "La cantidad del producto debe ser mayor a cero.";
+            }
+            if (!productosPorId.containsKey(detalle.getProductoId())) {
+                return "Producto no encontrado con ID: " + detalle.getProductoId();
+            }
+            cantidades.merge(detalle.getProductoId(), detalle.getCantidad(), Integer::sum);
+        }
+
+        List<String> faltantes = new ArrayList<>();
+        cantidades.forEach((productoId, cantidad) -> {
+            int disponible = stockDisponible.get(productoId);
+            if (disponible < cantidad) {
+                faltantes.add(productosPorId.get(productoId).nombre()
+                        + " (disponible: " + disponible + ", solicitado: " + cantidad + ")");
+            }
+        });
+        return faltantes.isEmpty() ? null : "No hay stock suficiente para los productos: " + String.join(", ", faltantes);
+    }
+
+    private void descontarStock(Map<Long, Integer> descuentos, Map<Long, ProductoLote> productosPorId) {
+        List<Long> productoIds = new ArrayList<>(descuentos.keySet());
+        SqlParameterSource[] parametros = productoIds.stream()
+                .map(productoId -> new MapSqlParameterSource()
+                        .addValue("id", productoId)
+                        .addValue("cantidad", descuentos.get(productoId)))
+                .toArray(SqlParameterSource[]::new);
+
+        int[] actualizados = jdbcTemplate.batchUpdate(SQL_DESCONTAR_STOCK, parametros);
+        for (int i = 0; i < actualizados.length; i++) {
+            if (actualizados[i] == 0) {
+                throw new ConflictoStockException(
+                        "No hay stock suficiente para el producto: " + productosPorId.get(productoIds.get(i)).nombre());
+            }
+        }
+        Map<Long, Integer> diferencias = new HashMap<>();
+        descuentos.forEach((productoId, cantidad) -> diferencias.put(productoId, -cantidad));
+        stockService.publicarCambio(diferencias);
+    }
+
+    private List<Long> insertarVentas(List<VentaOfflineRequest> ventas, List<Integer> aceptadas, Map<Long, ProductoLote> productosPorId) {
+        SqlParameterSource[] parametros = aceptadas.stream()
+                .map(ventas::get)
+                .map(venta -> new MapSqlParameterSource()
+                        .addValue("fecha", venta.getFecha())
+                        .addValue("total", calcularTotal(venta, productosPorId))
+                        .addValue("metodoPago", venta.getMetodoPago())
+                        .addValue("idCliente", venta.getIdCliente()))
+                .toArray(SqlParameterSource[]::new);
+
+        GeneratedKeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(SQL_INSERTAR_VENTA, parametros, keyHolder, new String[] {"id"});
+        return keyHolder.getKeyList().stream()
+                .map(claves -> ((Number) claves.values().iterator().next()).longValue())
+                .toList();
+    }
+
+    private void insertarDetalles(List<VentaOfflineRequest> ventas, List<Integer> aceptadas, List<Long> ventaIds,
+                                  Map<Long, ProductoLote> productosPorId) {
+        List<SqlParameterSource> parametros = new ArrayList<>();
+        for (int i = 0; i < aceptadas.size(); i++) {
+            Long ventaId = ventaIds.get(i);
+            for (DetalleVentaRequest detalle : ventas.get(aceptadas.get(i)).getDetalles()) {
+                ProductoLote producto = productosPorId.get(detalle.getProductoId());
+                BigDecimal precioUnitario = producto.precioVenta();
+                parametros.add(new MapSqlParameterSource()
+                        .addValue("ventaId", ventaId)
+                        .addValue("productoId", detalle.getProductoId())
+                        .addValue("cantidad", detalle.getCantidad())
+                        .addValue("precioUnitario", precioUnitario)
+                        .addValue("costoUnitario", producto.precioCompra())
+                        .addValue("subtotal", precioUnitario.multiply(BigDecimal.valueOf(detalle.getCantidad()))));
+            }
+        }
+        jdbcTemplate.batchUpdate(SQL_INSERTAR_DETALLE, parametros.toArray(SqlParameterSource[]::new));
+    }
+
+    // Cada venta queda en el kardex con su propia fecha, no con la de sincronizacion.
+    private void registrarMovimientos(List<VentaOfflineRequest> ventas, List<Integer> aceptadas, List<Long> ventaIds) {
+        List<MovimientoService.Asiento> asientos = new ArrayList<>();
+        for (int i = 0; i < aceptadas.size(); i++) {
+            VentaOfflineRequest venta = ventas.get(aceptadas.get(i));
+            Long ventaId = ventaIds.get(i);
+            Map<Long, Integer> cantidades = new LinkedHashMap<>();
+            venta.getDetalles().forEach(detalle -> cantidades.merge(detalle.getProductoId(), detalle.getCantidad(), Integer::sum));
+            cantidades.forEach((productoId, cantidad) -> asientos.add(new MovimientoService.Asiento(
+                    productoId, -cantidad, MovimientoTipo.VENTA, ventaId, venta.getFecha(), null)));
+        }
+        movimientoService.registrar(asientos);
+    }
+
+    private ResumenDiarioService.VentaResumen resumir(VentaOfflineRequest venta, Map<Long, ProductoLote> productosPorId) {
+        List<ResumenDiarioService.LineaResumen> lineas = venta.getDetalles().stream()
+                .map(detalle -> {
+                    ProductoLote producto = productosPorId.get(detalle.getProductoId());
+                    return new ResumenDiarioService.LineaResumen(producto.id(), detalle.getCantidad(),
+                            producto.precioVenta().multiply(BigDecimal.valueOf(detalle.getCantidad())),
+                            producto.precioCompra());
+                })
+                .toList();
+        return new ResumenDiarioService.VentaResumen(venta.getFecha().toLocalDate(), venta.getMetodoPago(),
+                calcularTotal(venta, productosPorId), lineas);
+    }
+
+    private BigDecimal calcularTotal(VentaOfflineRequest venta, Map<Long, ProductoLote> productosPorId) {
+        return venta.getDetalles().stream()
+                .map(detalle -> productosPorId.get(detalle.getProductoId()).precioVenta()
+                        .multiply(BigDecimal.valueOf(detalle.getCantidad())))
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+    }
+
+    private VentaLoteResultado resultado(String idCliente, VentaLoteEstado estado, Long ventaId, String mensaje) {
+        return VentaLoteResultado.builder()
+                .idCliente(idCliente)
+                .estado(estado)
+                .ventaId(ventaId)
+                .mensaje(mensaje)
+                .build();
+    }
+
+    private long contar(List<VentaLoteResultado> resultados, VentaLoteEstado estado) {
+        return resultados.stream().filter(resultado -> resultado.getEstado() == estado).count();
+    }
+
+    private record ProductoLote(Long id, String nombre, BigDecimal precioCompra, BigDecimal precioVenta, int stock) {
+    }
+
+    private static class ConflictoStockException extends RuntimeException {
+        ConflictoStockException(String message) {
+            super(message);
+        }
+    }
+}
@@ -1,27 +1,41 @@
 package com.papeleria.services.venta;
 import static com.papeleria.services.venta.DetalleVentaSpecification.productoNombreContains;
 import static com.papeleria.services.venta.DetalleVentaSpecification.ventaFechaBetween;
+import static com.papeleria.services.CursorPaginacion.posteriorA;
 import static com.papeleria.services.venta.VentaSpecification.*;
 
 import com.papeleria.dtos.*;
 import com.papeleria.mappers.venta.DetalleVentaMapper;
 import com.papeleria.models.DetalleVenta;
+import com.papeleria.models.MovimientoTipo;
 import com.papeleria.models.Producto;
 import com.papeleria.models.Venta;
 import com.papeleria.repositories.DetalleVentaRepository;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
 import com.papeleria.mappers.venta.VentaMapper;
-import com.papeleria.repositories.ProductoRepository;
+import com.papeleria.repositories.ResumenAgregado;
 import com.papeleria.repositories.VentaRepository;
+import com.papeleria.services.CursorPaginacion;
+import com.papeleria.services.movimiento.MovimientoService;
+import com.papeleria.services.producto.StockService;
+import com.papeleria.services.reporte.ResumenDiarioService;
+import io.micrometer.core.annotation.Timed;
 import jakarta.persistence.EntityNotFoundException;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.util.ArrayList;
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import org.springframework.beans.factory.annotation.Autowired;
@@ -36,10 +50,16 @@ public class VentaService {
     private VentaRepository ventaRepository;
 
     @Autowired
-    private ProductoRepository productoRepository;
+    private DetalleVentaRepository detalleVentaRepository;
 
     @Autowired
-    private DetalleVentaRepository detalleVentaRepository;
+    private StockService stockService;
+
+    @Autowired
+    private ResumenDiarioService resumenDiarioService;
+
+    @Autowired
+    private MovimientoService movimientoService;
 
     @Autowired
     private VentaMapper ventaMapper;
@@ -56,27 +76,47 @@ public class VentaService {
                                         BigDecimal minTotal,
                                         BigDecimal maxTotal) {
 
-        if (desde == null && hasta == null) {
-            desde = LocalDate.now().atStartOfDay();
-            hasta = LocalDate.now().atTime(23, 59, 59);
-        }
-
-        Specification<Venta> spec = Specification
-                .where(metodoPagoEquals(metodoPago))
-                .and(fechaBetween(desde, hasta))
-                .and(totalMin(minTotal))
-                .and(totalMax(maxTotal))
-                .and(totalMayorQueCero());
+        Specification<Venta> spec = filtrosListado(metodoPago, desde, hasta, minTotal, maxTotal);
 
-        Page<VentaResponse> pageDeVentas = ventaRepository.findAll(spec, pageable).map(ventaMapper::toResponse);
+        // La misma consulta da la suma y la cantidad, asi la pagina no necesita su propio COUNT.
+        ResumenAgregado resumen = ventaRepository.agregar(spec, "total");
+        Page<Venta> ventas = ventaRepository.paginar(spec, pageable, resumen.getCantidad());
+        if (ventas.hasContent()) {
+            // Carga los detalles y productos de toda la pagina en una sola consulta antes de mapear.
+            ventaRepository.findWithDetallesByIdIn(ventas.map(Venta::getId).getContent());
+        }
+        Page<VentaResponse> pageDeVentas = ventas.map(ventaMapper::toResponse);
 
-        List<Venta> todasLasVentas = ventaRepository.findAll(spec);
+        return new VentaPageResponse(pageDeVentas, resumen.getSuma());
+    }
 
-        BigDecimal totalGeneral = todasLasVentas.stream()
-                .map(Venta::getTotal)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+    public VentaCursorResponse traerTodosPorCursor(String cursor,
+                                                   int tamano,
+                                                   boolean conteo,
+                                                   String metodoPago,
+                                                   LocalDateTime desde,
+                                                   LocalDateTime hasta,
+                                                   BigDecimal minTotal,
+                                                   BigDecimal maxTotal) {
+
+        Specification<Venta> filtros = filtrosListado(metodoPago, desde, hasta, minTotal, maxTotal);
+        Specification<Venta> spec = filtros
+                .and(posteriorA(CursorPaginacion.decodificar(cursor), "fecha", Sort.Direction.ASC));
+
+        List<Venta> filas = ventaRepository.findBy(spec, query -> query
+                .sortBy(CursorPaginacion.orden("fecha", Sort.Direction.ASC))
+                .limit(tamano + 1)
+                .all());
+
+        ResumenAgregado resumen = conteo ? ventaRepository.agregar(filtros, "total") : null;
+        PaginaCursor<Venta> pagina = CursorPaginacion.pagina(filas, tamano, Venta::getFecha, Venta::getId,
+                resumen != null ? resumen.getCantidad() : null);
+
+        if (!pagina.getContenido().isEmpty()) {
+            ventaRepository.findWithDetallesByIdIn(pagina.getContenido().stream().map(Venta::getId).toList());
+        }
 
-        return new VentaPageResponse(pageDeVentas, totalGeneral);
+        return new VentaCursorResponse(pagina.map(ventaMapper::toResponse), resumen != null ? resumen.getSuma() : null);
     }
 
     public Page<DetalleVentaResponse> buscarDetalles(Pageable pageable,
@@ -84,20 +124,46 @@ public class VentaService {
                                                      LocalDateTime desde,
                                                      LocalDateTime hasta) {
 
+        Specification<DetalleVenta> spec = especificacionDetalles(nombreProducto, desde, hasta);
+
+        return detalleVentaRepository.findAll(spec, pageable).map(detalleVentaMapper::toResponse);
+    }
+
+    public PaginaCursor<DetalleVentaResponse> buscarDetallesPorCursor(String cursor,
+                                                                      int tamano,
+                                                                      boolean conteo,
+                                                                      String nombreProducto,
+                                                                      LocalDateTime desde,
+                                                                      LocalDateTime hasta) {
+
+        Specification<DetalleVenta> filtros = especificacionDetalles(nombreProducto, desde, hasta);
+        Specification<DetalleVenta> spec = filtros
+                .and(posteriorA(CursorPaginacion.decodificar(cursor), "venta.fecha", Sort.Direction.ASC));
+
+        List<DetalleVenta> filas = detalleVentaRepository.findBy(spec, query -> query
+                .sortBy(CursorPaginacion.orden("venta.fecha", Sort.Direction.ASC))
+                .project("producto", "venta")
+                .limit(tamano + 1)
+                .all());
+
+        Long total = conteo ? detalleVentaRepository.count(filtros) : null;
+        return CursorPaginacion.pagina(filas, tamano, detalle -> detalle.getVenta().getFecha(), DetalleVenta::getId, total)
+                .map(detalleVentaMapper::toResponse);
+    }
+
+    private Specification<DetalleVenta> especificacionDetalles(String nombreProducto, LocalDateTime desde, LocalDateTime hasta) {
         // Default to today if no date range is provided by the user for filtering
         if (desde == null && hasta == null) {
             desde = LocalDate.now().atStartOfDay();
             hasta = LocalDate.now().atTime(23, 59, 59);
         }
 
-        Specification<DetalleVenta> spec = Specification.where(productoNombreContains(nombreProducto))
+        return Specification.where(productoNombreContains(nombreProducto))
                 .and(ventaFechaBetween(desde, hasta));
-
-        return detalleVentaRepository.findAll(spec, pageable).map(detalleVentaMapper::toResponse);
     }
 
     public List<DetalleVentaResponse> obtenerDetallesPorVenta(Long ventaId) {
-        return ventaRepository.findById(ventaId)
+        return ventaRepository.findWithDetallesById(ventaId)
                 .map(Venta::getDetalles)
                 .orElseThrow(() -> new EntityNotFoundException("Venta no encontrada"))
                 .stream()
@@ -105,122 +171,149 @@ public class VentaService {
                 .toList();
     }
 
+    @Timed("papeleria.ventas.crear")
     @Transactional
     public Venta crearVenta(VentaRequest request) {
         Venta venta = new Venta();
         venta.setFecha(LocalDateTime.now());
         venta.setMetodoPago(request.getMetodoPago());
 
-        BigDecimal total = BigDecimal.ZERO;
-        List<Producto> productosParaActualizar = new ArrayList<>();
-
+        Map<Long, Integer> cantidadesPorProducto = new LinkedHashMap<>();
         for (DetalleVentaRequest detalleReq : request.getDetalles()) {
             if (detalleReq.getCantidad() <= 0) {
                 throw new IllegalArgumentException("La cantidad del producto debe ser mayor a cero.");
             }
+            cantidadesPorProducto.merge(detalleReq.getProductoId(), detalleReq.getCantidad(), Integer::sum);
+        }
 
-            Producto producto = productoRepository.findById(detalleReq.getProductoId())
-                    .orElseThrow(() -> new EntityNotFoundException("Producto no encontrado con ID: " + detalleReq.getProductoId()));
-
-            if (producto.getStock() < detalleReq.getCantidad()) {
-                throw new IllegalArgumentException("No hay stock suficiente para el producto: " + producto.getNombre());
-            }
+        Map<Long, Producto> productosPorId = stockService.cargarProductos(cantidadesPorProducto.keySet());
+        stockService.descontarStock(cantidadesPorProducto, productosPorId);
 
+        BigDecimal total = BigDecimal.ZERO;
+        for (DetalleVentaRequest detalleReq : request.getDetalles()) {
+            Producto producto = productosPorId.get(detalleReq.getProductoId());
             BigDecimal subtotal = producto.getPrecioVenta().multiply(BigDecimal.valueOf(detalleReq.getCantidad()));
 
             DetalleVenta detalle = new DetalleVenta();
             detalle.setProducto(producto);
             detalle.setCantidad(detalleReq.getCantidad());
             detalle.setPrecioUnitario(producto.getPrecioVenta());
+            detalle.setCostoUnitario(producto.getPrecioCompra());
             detalle.setSubtotal(subtotal);
 
             // Establecer la relación bidireccional correctamente
             venta.agregarDetalle(detalle);
             total = total.add(subtotal);
-
-            producto.setStock(producto.getStock() - detalleReq.getCantidad());
-            productosParaActualizar.add(producto);
         }
 
-        productoRepository.saveAll(productosParaActualizar);
-
         venta.setTotal(total);
+        resumenDiarioService.registrar(null, resumenDiarioService.resumir(venta));
 
-        return ventaRepository.save(venta);
+        Venta ventaGuardada = ventaRepository.save(venta);
+        Map<Long, Integer> salidas = new HashMap<>();
+        cantidadesPorProducto.forEach((productoId, cantidad) -> salidas.put(productoId, -cantidad));
+        movimientoService.registrar(salidas, MovimientoTipo.VENTA, ventaGuardada.getId(), null);
+        return ventaGuardada;
     }
 
+    /**
+     * Aplica la edicion como diferencia contra los detalles existentes: solo se actualizan, insertan o borran
+     * las lineas que cambian, y el stock se ajusta por el neto de cada producto. Las lineas que se conservan
+     * mantienen el precio unitario y el costo con los que se vendieron.
+     */
     @Transactional
     public Venta actualizarVenta(Long ventaId, VentaRequest request) {
-        Venta ventaExistente = ventaRepository.findById(ventaId)
+        Venta ventaExistente = ventaRepository.findWithDetallesById(ventaId)
                 .orElseThrow(() -> new EntityNotFoundException("Venta no encontrada con ID: " + ventaId));
+        ResumenDiarioService.VentaResumen resumenAnterior = resumenDiarioService.resumir(ventaExistente);
 
-        List<Producto> productosParaActualizar = new ArrayList<>();
-        for (DetalleVenta detalleAntiguo : ventaExistente.getDetalles()) {
-            Producto producto = detalleAntiguo.getProducto();
-            producto.setStock(producto.getStock() + detalleAntiguo.getCantidad());
-            productosParaActualizar.add(producto);
+        Map<Long, Producto> productosPorId = new HashMap<>();
+        Map<Long, Deque<DetalleVenta>> detallesPorProducto = new HashMap<>();
+        Map<Long, Integer> diferencias = new HashMap<>();
+        for (DetalleVenta detalle : ventaExistente.getDetalles()) {
+            Long productoId = detalle.getProducto().getId();
+            productosPorId.put(productoId, detalle.getProducto());
+            detallesPorProducto.computeIfAbsent(productoId, id -> new ArrayDeque<>()).add(detalle);
+            diferencias.merge(productoId, -detalle.getCantidad(), Integer::sum);
         }
 
-        ventaExistente.getDetalles().clear();
-        BigDecimal nuevoTotal = BigDecimal.ZERO;
-
-        for (DetalleVentaRequest detalleNuevoReq : request.getDetalles()) {
-            Producto producto = productoRepository.findById(detalleNuevoReq.getProductoId())
-                    .orElseThrow(() -> new EntityNotFoundException("Producto no encontrado con ID: " + detalleNuevoReq.getProductoId()));
-
-            Producto productoEnLista = productosParaActualizar.stream()
-                .filter(p -> p.getId().equals(producto.getId())).findFirst().orElse(producto);
-
-            if (productoEnLista.getStock() < detalleNuevoReq.getCantidad()) {
-                throw new IllegalArgumentException("No hay stock suficiente para el producto: " + productoEnLista.getNombre());
+        Set<Long> productosNuevos = new HashSet<>();
+        for (DetalleVentaRequest detalleReq : request.getDetalles()) {
+            if (detalleReq.getCantidad() <= 0) {
+                throw new IllegalArgumentException("La cantidad del producto debe ser mayor a cero.");
             }
+            if (!productosPorId.containsKey(detalleReq.getProductoId())) {
+                productosNuevos.add(detalleReq.getProductoId());
+            }
+            diferencias.merge(detalleReq.getProductoId(), detalleReq.getCantidad(), Integer::sum);
+        }
+        if (!productosNuevos.isEmpty()) {
+            productosPorId.putAll(stockService.cargarProductos(productosNuevos));
+        }
 
-            productoEnLista.setStock(productoEnLista.getStock() - detalleNuevoReq.getCantidad());
-            if (!productosParaActualizar.contains(productoEnLista)) {
-                productosParaActualizar.add(productoEnLista);
+        for (DetalleVentaRequest detalleReq : request.getDetalles()) {
+            Deque<DetalleVenta> existentes = detallesPorProducto.get(detalleReq.getProductoId());
+            DetalleVenta detalle = existentes != null ? existentes.poll() : null;
+
+            if (detalle == null) {
+                Producto producto = productosPorId.get(detalleReq.getProductoId());
+                detalle = new DetalleVenta();
+                detalle.setProducto(producto);
+                detalle.setPrecioUnitario(producto.getPrecioVenta());
+                detalle.setCostoUnitario(producto.getPrecioCompra());
+                ventaExistente.agregarDetalle(detalle);
+            } else if (detalle.getCantidad().equals(detalleReq.getCantidad())) {
+                continue;
             }
 
-            DetalleVenta detalleNuevo = new DetalleVenta();
-            detalleNuevo.setProducto(productoEnLista);
-            detalleNuevo.setCantidad(detalleNuevoReq.getCantidad());
-            detalleNuevo.setPrecioUnitario(productoEnLista.getPrecioVenta());
-            BigDecimal subtotal = productoEnLista.getPrecioVenta().multiply(BigDecimal.valueOf(detalleNuevoReq.getCantidad()));
-            detalleNuevo.setSubtotal(subtotal);
+            detalle.setCantidad(detalleReq.getCantidad());
+            detalle.setSubtotal(detalle.getPrecioUnitario().multiply(BigDecimal.valueOf(detalleReq.getCantidad())));
+        }
 
-            ventaExistente.agregarDetalle(detalleNuevo);
-            nuevoTotal = nuevoTotal.add(subtotal);
+        Set<DetalleVenta> sobrantes = Collections.newSetFromMap(new IdentityHashMap<>());
+        detallesPorProducto.values().forEach(sobrantes::addAll);
+        if (!sobrantes.isEmpty()) {
+            ventaExistente.getDetalles().removeIf(sobrantes::contains);
         }
 
-        productoRepository.saveAll(productosParaActualizar);
+        Map<Long, Integer> descuentos = new HashMap<>();
+        Map<Long, Integer> reposiciones = new HashMap<>();
+        diferencias.forEach((productoId, diferencia) -> {
+            if (diferencia > 0) {
+                descuentos.put(productoId, diferencia);
+            } else if (diferencia < 0) {
+                reposiciones.put(productoId, -diferencia);
+            }
+        });
+        stockService.reponerStock(reposiciones);
+        stockService.descontarStock(descuentos, productosPorId);
+        Map<Long, Integer> cambios = new HashMap<>();
+        diferencias.forEach((productoId, diferencia) -> cambios.put(productoId, -diferencia));
+        movimientoService.registrar(cambios, MovimientoTipo.EDICION_VENTA, ventaId, null);
+
+        BigDecimal nuevoTotal = ventaExistente.getDetalles().stream()
+                .map(DetalleVenta::getSubtotal)
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
 
         ventaExistente.setTotal(nuevoTotal);
         ventaExistente.setMetodoPago(request.getMetodoPago());
+        resumenDiarioService.registrar(resumenAnterior, resumenDiarioService.resumir(ventaExistente));
 
         return ventaRepository.save(ventaExistente);
     }
 
     @Transactional
     public void eliminarVenta(Long ventaId) {
-        Venta ventaExistente = ventaRepository.findById(ventaId)
+        Venta ventaExistente = ventaRepository.findWithDetallesById(ventaId)
                 .orElseThrow(() -> new EntityNotFoundException("Venta no encontrada con ID: " + ventaId));
+        resumenDiarioService.registrar(resumenDiarioService.resumir(ventaExistente), null);
 
-        List<Producto> productosParaActualizar = new ArrayList<>();
-        Set<Long> productosProcesados = new HashSet<>();
-
+        Map<Long, Integer> reposiciones = new HashMap<>();
         for (DetalleVenta detalle : ventaExistente.getDetalles()) {
-            Producto producto = detalle.getProducto();
-            producto.setStock(producto.getStock() + detalle.getCantidad());
-
-            if (producto.getId() != null && productosProcesados.add(producto.getId())) {
-                productosParaActualizar.add(producto);
-            } else if (producto.getId() == null) {
-                productosParaActualizar.add(producto);
-            }
-        }
-
-        if (!productosParaActualizar.isEmpty()) {
-            productoRepository.saveAll(productosParaActualizar);
+            reposiciones.merge(detalle.getProducto().getId(), detalle.getCantidad(), Integer::sum);
         }
+        stockService.reponerStock(reposiciones);
+        movimientoService.registrar(reposiciones, MovimientoTipo.ANULACION_VENTA, ventaId, null);
 
         ventaExistente.getDetalles().clear();
         ventaExistente.setTotal(BigDecimal.ZERO);
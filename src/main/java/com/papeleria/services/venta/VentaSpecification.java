@@ -2,11 +2,30 @@ package com.papeleria.services.venta;
 
 import com.papeleria.models.Venta;
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import org.springframework.data.jpa.domain.Specification;
 
 public class VentaSpecification {
 
+    public static Specification<Venta> filtrosListado(String metodoPago,
+                                                      LocalDateTime desde,
+                                                      LocalDateTime hasta,
+                                                      BigDecimal minTotal,
+                                                      BigDecimal maxTotal) {
+        if (desde == null && hasta == null) {
+            desde = LocalDate.now().atStartOfDay();
+            hasta = LocalDate.now().atTime(23, 59, 59);
+        }
+
+        return Specification
+                .where(metodoPagoEquals(metodoPago))
+                .and(fechaBetween(desde, hasta))
+                .and(totalMin(minTotal))
+                .and(totalMax(maxTotal))
+                .and(totalMayorQueCero());
+    }
+
     public static Specification<Venta> metodoPagoEquals(String metodoPago) {
         return (root, q, cb) -> metodoPago == null || metodoPago.isBlank()
                 ? cb.conjunction()
@@ -0,0 +1,54 @@
+-- Esquema tal como lo dejaba ddl-auto=update antes de las migraciones. Las bases existentes se marcan en esta
+-- version (baseline) y solo aplican las migraciones siguientes, asi que aqui no se agrega nada posterior.
+
+create table productos (
+    id bigint not null auto_increment,
+    nombre varchar(255) not null,
+    descripcion varchar(500),
+    precio_compra decimal(10,2) not null,
+    precio_venta decimal(10,2) not null,
+    stock integer not null,
+    categoria varchar(255) not null,
+    fecha_registro datetime(6) not null,
+    estado bit not null,
+    primary key (id)
+) engine=InnoDB;
+
+create table ventas (
+    id bigint not null auto_increment,
+    fecha datetime(6) not null,
+    total decimal(12,2) not null,
+    metodo_pago varchar(255) not null,
+    primary key (id)
+) engine=InnoDB;
+
+create table detalles_venta (
+    id bigint not null auto_increment,
+    venta_id bigint not null,
+    producto_id bigint not null,
+    cantidad integer not null,
+    precio_unitario decimal(10,2) not null,
+    subtotal decimal(12,2) not null,
+    primary key (id),
+    constraint fk_detalles_venta_venta foreign key (venta_id) references ventas (id),
+    constraint fk_detalles_venta_producto foreign key (producto_id) references productos (id)
+) engine=InnoDB;
+
+create table gastos (
+    id bigint not null auto_increment,
+    fecha date not null,
+    monto decimal(12,2) not null,
+    descripcion varchar(500) not null,
+    primary key (id)
+) engine=InnoDB;
+
+create table movimientos (
+    id bigint not null auto_increment,
+    producto_id bigint not null,
+    cantidad integer not null,
+    tipo enum ('INGRESO') not null,
+    observacion varchar(500),
+    fecha_movimiento datetime(6) not null,
+    primary key (id),
+    constraint fk_movimientos_producto foreign key (producto_id) references productos (id)
+) engine=InnoDB;
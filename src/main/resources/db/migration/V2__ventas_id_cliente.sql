@@ -0,0 +1,3 @@
+-- Identificador que asigna la caja a cada venta registrada sin conexion; evita duplicarla al reenviar el lote.
+alter table ventas add column id_cliente varchar(64);
+alter table ventas add constraint uk_ventas_id_cliente unique (id_cliente);
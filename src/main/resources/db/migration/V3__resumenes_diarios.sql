@@ -0,0 +1,26 @@
+-- Costo del producto al momento de la venta. Las lineas anteriores lo reciben al arrancar (CostoUnitarioBackfill).
+alter table detalles_venta add column costo_unitario decimal(10,2);
+
+-- Resumenes diarios de ventas para los reportes. Se pueblan al arrancar si estan vacios (ResumenDiarioService).
+create table resumen_ventas_diario (
+    id bigint not null auto_increment,
+    fecha date not null,
+    metodo_pago varchar(255) not null,
+    cantidad_ventas bigint not null,
+    total decimal(14,2) not null,
+    primary key (id),
+    constraint uk_resumen_ventas_diario unique (fecha, metodo_pago)
+) engine=InnoDB;
+
+create table resumen_productos_diario (
+    id bigint not null auto_increment,
+    fecha date not null,
+    producto_id bigint not null,
+    metodo_pago varchar(255) not null,
+    unidades bigint not null,
+    ingresos decimal(14,2) not null,
+    costo decimal(14,2) not null,
+    cantidad_ventas bigint not null,
+    primary key (id),
+    constraint uk_resumen_productos_diario unique (fecha, producto_id, metodo_pago)
+) engine=InnoDB;
@@ -0,0 +1,2 @@
+-- Minimo propio de cada producto para las alertas de stock bajo; sin valor se usa el general.
+alter table productos add column stock_minimo integer;
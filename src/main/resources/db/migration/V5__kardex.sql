@@ -0,0 +1,17 @@
+-- ddl-auto=update no amplia un enum existente: las bases creadas antes del kardex solo admitian INGRESO.
+alter table movimientos
+    modify tipo enum ('INGRESO','AJUSTE','VENTA','EDICION_VENTA','ANULACION_VENTA') not null;
+alter table movimientos add column venta_id bigint;
+
+create index idx_movimientos_producto_fecha on movimientos (producto_id, fecha_movimiento);
+create index idx_movimientos_venta on movimientos (venta_id);
+
+-- Cortes nocturnos de stock por producto.
+create table saldos_inventario (
+    id bigint not null auto_increment,
+    producto_id bigint not null,
+    fecha datetime(6) not null,
+    stock integer not null,
+    primary key (id),
+    constraint uk_saldos_inventario_producto_fecha unique (producto_id, fecha)
+) engine=InnoDB;
@@ -0,0 +1,20 @@
+-- Listados por cursor (orden fecha, id), exportacion, conteos y sumas de ventas por rango de fechas.
+create index idx_ventas_fecha on ventas (fecha, id);
+create index idx_ventas_metodo_pago_fecha on ventas (metodo_pago, fecha);
+
+-- Ganancia, mas vendidos y series por rango: se filtra ventas por fecha y se entra a los detalles por venta_id;
+-- el indice trae todas las columnas que esas consultas suman. El indice de la llave foranea no se quita; este
+-- se agrega para esas sumas.
+create index idx_detalles_venta_venta_cubriente
+    on detalles_venta (venta_id, producto_id, cantidad, subtotal, costo_unitario);
+
+-- Listado de movimientos por cursor (mas recientes primero) y filtro por tipo. MySQL recorre el indice al reves
+-- para el orden descendente, asi que sirve el mismo indice ascendente para ambos sentidos.
+create index idx_movimientos_fecha on movimientos (fecha_movimiento, id);
+create index idx_movimientos_tipo_fecha on movimientos (tipo, fecha_movimiento);
+
+-- Listado por cursor (mas recientes primero) y total de gastos por rango.
+create index idx_gastos_fecha on gastos (fecha, id);
+
+-- Catalogo activo y productos con stock bajo.
+create index idx_productos_estado_stock on productos (estado, stock);
@@ -0,0 +1,155 @@
+package com.papeleria.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.cookie;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.papeleria.models.Producto;
+import com.papeleria.services.producto.ProductoService;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.servlet.http.Cookie;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.Statement;
+import java.util.List;
+import javax.sql.DataSource;
+import org.flywaydb.core.Flyway;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Primaria y replica en dos H2 en memoria; la replicacion es una copia de la primaria hecha a mano, asi que la
+ * replica queda atrasada a proposito. Cubre la cache de segundo nivel con lecturas de la replica y la lectura de lo
+ * propio con la cookie {@value DataSourceReplicado#COOKIE_PRIMARIA}.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:replicas-primaria;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+        "papeleria.datasource.replicas=" + ReplicasTest.URL_REPLICA,
+        "papeleria.datasource.verificacion-ms=600000"})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class ReplicasTest {
+
+    static final String URL_REPLICA = "jdbc:h2:mem:replicas-replica;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ProductoService productoService;
+
+    // La replica necesita el esquema antes de que arranque el contexto: los indices en memoria se cargan con
+    // lecturas de solo lectura.
+    @BeforeAll
+    static void migrarReplica() {
+        Flyway.configure().dataSource(URL_REPLICA, "sa", "").load().migrate();
+    }
+
+    @Test
+    void unaLecturaDeLaReplicaAtrasadaNoDeshaceLaVentaEnCache() throws Exception {
+        Long productoId = crearProducto("Producto replica cache", 10);
+
+        // La replica se queda con el stock de 10 y deja de recibir cambios.
+        sincronizarReplica();
+        entityManagerFactory.unwrap(SessionFactory.class).getCache().evictAllRegions();
+
+        vender(productoId, 3);
+
+        // Transaccion de solo lectura fuera de una peticion: va a la replica y ve el stock viejo.
+        assertThat(productoService.buscarPorIds(List.of(productoId))).extracting(Producto::getStock).containsExactly(10);
+
+        assertThat(entityManagerFactory.getCache().contains(Producto.class, productoId)).isFalse();
+        Integer stock = transactionTemplate.execute(estado -> entityManager.find(Producto.class, productoId).getStock());
+        assertThat(stock).isEqualTo(7);
+    }
+
+    @Test
+    void despuesDeUnaVentaElClienteLeeDeLaPrimaria() throws Exception {
+        Long productoId = crearProducto("Producto replica lectura propia", 10);
+        sincronizarReplica();
+
+        Cookie primaria = vender(productoId, 2).getResponse().getCookie(DataSourceReplicado.COOKIE_PRIMARIA);
+        assertThat(primaria).isNotNull();
+
+        String movimientosDeLaVenta = "/api/movimientos?tipo=VENTA&productoId=" + productoId;
+        mockMvc.perform(get(movimientosDeLaVenta).cookie(primaria)).andExpect(status().isOk());
+        // Sin la cookie la lectura va a la replica, que todavia no tiene la venta.
+        mockMvc.perform(get(movimientosDeLaVenta)).andExpect(status().isNoContent());
+    }
+
+    @Test
+    void unaLecturaEnTransaccionDeEscrituraNoFijaLaPrimaria() throws Exception {
+        crearProducto("Producto replica solo lectura", 10);
+
+        // El listado de productos corre con el @Transactional de clase de ProductoService, sin escribir nada.
+        mockMvc.perform(get("/api/productos"))
+                .andExpect(status().isOk())
+                .andExpect(cookie().doesNotExist(DataSourceReplicado.COOKIE_PRIMARIA));
+    }
+
+    private Long crearProducto(String nombre, int stock) throws Exception {
+        MvcResult resultado = mockMvc.perform(post("/api/productos").contentType(MediaType.APPLICATION_JSON).content("""
+                        {"nombre": "%s", "categoria": "Pruebas", "precioCompra": 1000,
+                         "precioVenta": 2000, "stock": %d}""".formatted(nombre, stock)))
+                .andExpect(status().isCreated())
+                .andExpect(cookie().exists(DataSourceReplicado.COOKIE_PRIMARIA))
+                .andReturn();
+        return objectMapper.readTree(resultado.getResponse().getContentAsString()).path("id").asLong();
+    }
+
+    private MvcResult vender(Long productoId, int cantidad) throws Exception {
+        return mockMvc.perform(post("/api/ventas").contentType(MediaType.APPLICATION_JSON).content(
+                        "{\"metodoPago\": \"EFECTIVO\", \"detalles\": [{\"productoId\": " + productoId
+                                + ", \"cantidad\": " + cantidad + "}]}"))
+                .andExpect(status().isCreated())
+                .andReturn();
+    }
+
+    // Copia la primaria entera a la replica y la vuelve a poner en uso.
+    private void sincronizarReplica() throws Exception {
+        Path copia = Files.createTempFile("replica", ".sql");
+        try (Connection primaria = dataSource.getConnection();
+             Connection replica = DriverManager.getConnection(URL_REPLICA, "sa", "");
+             Statement enPrimaria = primaria.createStatement();
+             Statement enReplica = replica.createStatement()) {
+            enPrimaria.execute("SCRIPT TO '" + copia + "'");
+            enReplica.execute("DROP ALL OBJECTS");
+            enReplica.execute("RUNSCRIPT FROM '" + copia + "'");
+        } finally {
+            Files.deleteIfExists(copia);
+        }
+        DataSourceReplicado replicado = dataSource.unwrap(DataSourceReplicado.class);
+        replicado.verificar();
+        assertThat(replicado.getReplicas()).allMatch(DataSourceReplicado.Replica::isDisponible);
+    }
+}
@@ -0,0 +1,107 @@
+package com.papeleria.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.time.LocalDate;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+/**
+ * EXPLAIN de las consultas que ejecutan los listados y reportes sobre el esquema que dejan las migraciones. Las
+ * consultas no se escriben aca: las guarda {@link DataSourceContado} mientras corren las peticiones.
+ */
+@SpringBootTest(properties = {
+        "papeleria.verificar-indices=true",
+        "spring.datasource.url=jdbc:h2:mem:indices;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1"})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class VerificadorIndicesTest {
+
+    @Autowired
+    private VerificadorIndices verificadorIndices;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void lasConsultasDeLosListadosUsanIndices() throws Exception {
+        Long productoId = leer(enviar("/api/productos", """
+                {"nombre": "Producto indices", "categoria": "Pruebas", "precioCompra": 1000, "precioVenta": 2000,
+                 "stock": 100}""")).path("id").asLong();
+        Long ventaId = null;
+        for (int i = 0; i < 3; i++) {
+            ventaId = leer(enviar("/api/ventas", """
+                    {"metodoPago": "EFECTIVO", "detalles": [{"productoId": %d, "cantidad": 1}]}""".formatted(productoId)))
+                    .path("id").asLong();
+            enviar("/api/gastos", """
+                    {"monto": 5000, "descripcion": "Gasto indices %d"}""".formatted(i));
+        }
+        String rango = "desde=" + LocalDate.now().minusDays(7) + "&hasta=" + LocalDate.now();
+
+        consultar("/api/ventas?" + rango);
+        consultar("/api/ventas?metodoPago=EFECTIVO&" + rango);
+        consultarPorCursor("/api/ventas?conteo=true&" + rango);
+        consultarPorCursor("/api/ventas/detalles?" + rango);
+        consultar("/api/ventas/" + ventaId + "/detalles");
+        consultar("/api/movimientos?" + rango);
+        consultar("/api/movimientos?tipo=VENTA&" + rango);
+        consultarPorCursor("/api/movimientos?conteo=true&" + rango);
+        consultar("/api/movimientos/kardex?productoId=" + productoId + "&" + rango);
+        consultar("/api/movimientos/stock?fecha=" + LocalDate.now().atStartOfDay());
+        consultar("/api/gastos?" + rango);
+        consultarPorCursor("/api/gastos?conteo=true&" + rango);
+        consultar("/api/reportes/generales?fechaInicio=" + LocalDate.now().minusDays(7) + "&fechaFin=" + LocalDate.now());
+        consultar("/api/reportes/series?fechaInicio=" + LocalDate.now().minusDays(7) + "&fechaFin=" + LocalDate.now());
+
+        // El catalogo de productos se lee completo a proposito (indices en memoria, stock de todos a una fecha) y
+        // la busqueda por nombre sin mayusculas no puede usar indice; las tablas que crecen con el uso no se recorren.
+        assertThat(verificadorIndices.getRevisadas()).isGreaterThan(10);
+        assertThat(verificadorIndices.getRecorridos()).allMatch(recorrido -> recorrido.endsWith("(productos)"));
+    }
+
+    @Test
+    void detectaUnaConsultaSinIndice() {
+        List<String> recorridos = verificadorIndices.recorridos(List.of(new VerificadorIndices.Consulta(
+                "por descripcion", "select g.id from gastos g where g.descripcion = ?", "papel")));
+
+        assertThat(recorridos).containsExactly("por descripcion (gastos)");
+    }
+
+    private String consultar(String url) throws Exception {
+        return mockMvc.perform(get(url))
+                .andExpect(status().is2xxSuccessful())
+                .andReturn().getResponse().getContentAsString();
+    }
+
+    // Primera pagina y la siguiente, que ya filtra por el cursor; de a una fila para que haya siguiente.
+    private void consultarPorCursor(String url) throws Exception {
+        JsonNode primera = leer(consultar(url + "&size=1&cursor="));
+        String siguiente = primera.findValue("siguienteCursor").asText();
+        assertThat(siguiente).isNotBlank();
+        consultar(url + "&size=1&cursor=" + siguiente);
+    }
+
+    private String enviar(String url, String cuerpo) throws Exception {
+        return mockMvc.perform(post(url).contentType(MediaType.APPLICATION_JSON).content(cuerpo))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+    }
+
+    private JsonNode leer(String contenido) throws Exception {
+        return objectMapper.readTree(contenido);
+    }
+}
@@ -0,0 +1,147 @@
+package com.papeleria.controllers;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.papeleria.config.SentenciasPeticion;
+import jakarta.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.List;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+/**
+ * Sentencias SQL por peticion de los listados, contadas con {@link SentenciasPeticion}. Cada listado tiene que
+ * hacer las mismas sentencias sin importar cuantas filas trae (sin N+1) y no pasar de su presupuesto. La cache de
+ * segundo nivel se vacia antes de cada peticion para que no esconda cargas por fila.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class SentenciasPorEndpointTest {
+
+    private static final int VENTAS = 30;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private final List<Long> productoIds = new ArrayList<>();
+    private Long ventaCorta;
+    private Long ventaLarga;
+
+    @BeforeAll
+    void crearDatos() throws Exception {
+        for (int i = 0; i < 8; i++) {
+            JsonNode producto = leer(enviar(post("/api/productos"), """
+                    {"nombre": "Producto sentencias %d", "categoria": "Pruebas", "precioCompra": 1000,
+                     "precioVenta": 2000, "stock": 100000}""".formatted(i)));
+            productoIds.add(producto.path("id").asLong());
+        }
+        for (int i = 0; i < VENTAS; i++) {
+            Long venta = leer(crearVenta(i % 2 == 0 ? 1 : 6)).path("id").asLong();
+            if (ventaCorta == null) {
+                ventaCorta = venta;
+            } else if (ventaLarga == null && i % 2 == 1) {
+                ventaLarga = venta;
+            }
+        }
+    }
+
+    @BeforeEach
+    void vaciarCache() {
+        entityManagerFactory.unwrap(SessionFactory.class).getCache().evictAllRegions();
+    }
+
+    @Test
+    void listadoDeVentas() throws Exception {
+        assertSinNMasUno("/api/ventas?size=5", "/api/ventas?size=25", 3);
+    }
+
+    @Test
+    void listadoDeVentasPorCursor() throws Exception {
+        assertSinNMasUno("/api/ventas?cursor=&size=5", "/api/ventas?cursor=&size=25", 2);
+    }
+
+    @Test
+    void listadoDeDetalles() throws Exception {
+        assertSinNMasUno("/api/ventas/detalles?size=5", "/api/ventas/detalles?size=25", 2);
+    }
+
+    @Test
+    void detallesDeUnaVenta() throws Exception {
+        assertSinNMasUno("/api/ventas/" + ventaCorta + "/detalles", "/api/ventas/" + ventaLarga + "/detalles", 1);
+    }
+
+    @Test
+    void listadoDeMovimientos() throws Exception {
+        assertSinNMasUno("/api/movimientos?size=5", "/api/movimientos?size=25", 2);
+    }
+
+    @Test
+    void registroDeVenta() throws Exception {
+        long conUnaLinea = sentencias(crearVenta(1));
+        vaciarCache();
+        long conSeisLineas = sentencias(crearVenta(6));
+
+        // Los productos se cargan juntos; lo unico por linea es el insert del detalle (ids IDENTITY, sin lote).
+        assertThat(conSeisLineas).as("sentencias de una venta de 6 lineas frente a una de 1").isEqualTo(conUnaLinea + 5);
+    }
+
+    private void assertSinNMasUno(String pocas, String muchas, long presupuesto) throws Exception {
+        long conPocas = sentencias(pocas);
+        vaciarCache();
+        long conMuchas = sentencias(muchas);
+
+        assertThat(conMuchas).as("sentencias de %s frente a %s", muchas, pocas).isEqualTo(conPocas);
+        assertThat(conMuchas).as("sentencias de %s", muchas).isLessThanOrEqualTo(presupuesto);
+    }
+
+    private long sentencias(String url) throws Exception {
+        return sentencias(mockMvc.perform(get(url)).andExpect(status().isOk()).andReturn());
+    }
+
+    private long sentencias(MvcResult resultado) {
+        return SentenciasPeticion.de(resultado.getRequest()).getSentencias();
+    }
+
+    private MvcResult crearVenta(int lineas) throws Exception {
+        StringBuilder detalles = new StringBuilder();
+        for (int i = 0; i < lineas; i++) {
+            detalles.append(i == 0 ? "" : ",")
+                    .append("{\"productoId\": ").append(productoIds.get(i)).append(", \"cantidad\": 1}");
+        }
+        return enviar(post("/api/ventas"), "{\"metodoPago\": \"EFECTIVO\", \"detalles\": [" + detalles + "]}");
+    }
+
+    private MvcResult enviar(MockHttpServletRequestBuilder peticion, String cuerpo) throws Exception {
+        return mockMvc.perform(peticion.contentType(MediaType.APPLICATION_JSON).content(cuerpo))
+                .andExpect(status().isCreated())
+                .andReturn();
+    }
+
+    private JsonNode leer(MvcResult resultado) throws Exception {
+        return objectMapper.readTree(resultado.getResponse().getContentAsString());
+    }
+}
@@ -0,0 +1,225 @@
+package com.papeleria.services.movimiento;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.papeleria.models.MovimientoTipo;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Kardex y cortes de inventario: stock en una fecha a partir del ultimo corte, cortes descartados por asientos
+ * con fecha pasada (ventas fuera de linea, ediciones de movimientos) y la conciliacion al iniciar. Cada prueba
+ * arma la historia de su propio producto con asientos fechados a mano desde {@link #BASE}.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class KardexTest {
+
+    private static final LocalDateTime BASE = LocalDate.now().minusDays(6).atStartOfDay();
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MovimientoService movimientoService;
+
+    @Autowired
+    private KardexService kardexService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void stockEnUnaFechaAntesYDespuesDeCadaCorte() throws Exception {
+        Long productoId = productoConHistoria("Kardex cortes");
+
+        // El corte incluye lo ocurrido hasta su instante inclusive.
+        assertThat(stockEn(BASE.plusDays(1).minusSeconds(1), productoId)).isEqualTo(20);
+        assertThat(stockEn(BASE.plusDays(1), productoId)).isEqualTo(18);
+        assertThat(stockEn(BASE.plusDays(2).plusHours(12), productoId)).isEqualTo(14);
+        assertThat(stockEn(BASE.plusDays(3), productoId)).isEqualTo(14);
+        assertThat(stockEn(BASE.plusDays(4).plusHours(9), productoId)).isEqualTo(11);
+        assertThat(stockEn(LocalDateTime.now(), productoId)).isEqualTo(11);
+    }
+
+    @Test
+    void kardexLlevaElSaldoDesdeElInicioDelRango() throws Exception {
+        Long productoId = productoConHistoria("Kardex saldo");
+
+        JsonNode kardex = leer(mockMvc.perform(get("/api/movimientos/kardex")
+                        .param("productoId", productoId.toString())
+                        .param("desde", BASE.plusDays(1).toLocalDate().toString())
+                        .param("hasta", LocalDate.now().toString()))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString());
+
+        // El movimiento justo a la medianoche de desde queda en el saldo inicial, no en las lineas.
+        assertThat(kardex.path("saldoInicial").asInt()).isEqualTo(18);
+        assertThat(kardex.path("movimientos").findValuesAsText("cantidad")).containsExactly("-4", "-3");
+        assertThat(kardex.path("movimientos").findValuesAsText("saldo")).containsExactly("14", "11");
+        assertThat(kardex.path("saldoFinal").asInt()).isEqualTo(11);
+    }
+
+    @Test
+    void ventaFueraDeLineaConFechaPasadaDescartaLosCortesPosteriores() throws Exception {
+        Long productoId = productoConHistoria("Kardex venta retroactiva");
+
+        JsonNode lote = leer(enviar(post("/api/ventas/lote"), """
+                {"ventas": [{"idCliente": "kardex-retroactiva-%d", "fecha": "%s", "metodoPago": "EFECTIVO",
+                  "detalles": [{"productoId": %d, "cantidad": 5}]}]}""".formatted(
+                productoId, BASE.plusDays(2), productoId), 200));
+        assertThat(lote.path("registradas").asInt()).isEqualTo(1);
+
+        // El corte anterior a la venta sigue; el posterior se descarta y el calculo cae al anterior.
+        assertThat(cortes(productoId)).containsExactly(BASE.plusDays(1));
+        assertThat(stockEn(BASE.plusDays(1), productoId)).isEqualTo(18);
+        assertThat(stockEn(BASE.plusDays(3), productoId)).isEqualTo(9);
+        assertThat(stockEn(LocalDateTime.now(), productoId)).isEqualTo(6);
+        assertThat(stockEnBase(productoId)).isEqualTo(6);
+
+        // El siguiente corte vuelve a quedar bien.
+        kardexService.tomarCortes(BASE.plusDays(3));
+        assertThat(cortes(productoId)).containsExactly(BASE.plusDays(1), BASE.plusDays(3));
+        assertThat(stockEn(BASE.plusDays(3).plusHours(1), productoId)).isEqualTo(9);
+    }
+
+    @Test
+    void editarYEliminarUnMovimientoCorrigeStockYCortes() throws Exception {
+        Long productoId = productoConHistoria("Kardex edicion");
+        Long ingresoId = movimientoId(productoId, MovimientoTipo.INGRESO);
+        Long ajusteId = jdbcTemplate.queryForObject("select id from movimientos where producto_id = ? and cantidad = -3",
+                Long.class, productoId);
+
+        // El ajuste es posterior a ambos cortes: anularlo no descarta ninguno.
+        JsonNode anulado = leer(enviar(delete("/api/movimientos/" + ajusteId).param("observacion", "Ajuste repetido"), "", 200));
+        assertThat(anulado.path("cantidad").asInt()).isZero();
+        assertThat(stockEnBase(productoId)).isEqualTo(14);
+        assertThat(cortes(productoId)).containsExactly(BASE.plusDays(1), BASE.plusDays(3));
+        assertThat(stockEn(LocalDateTime.now(), productoId)).isEqualTo(14);
+
+        // El ingreso es anterior a los dos cortes: corregirlo descarta ambos.
+        JsonNode editado = leer(enviar(put("/api/movimientos/" + ingresoId),
+                "{\"cantidad\": 25, \"observacion\": \"Entrega mal contada\"}", 200));
+        assertThat(editado.path("cantidad").asInt()).isEqualTo(25);
+        assertThat(stockEnBase(productoId)).isEqualTo(19);
+        assertThat(cortes(productoId)).isEmpty();
+        assertThat(stockEn(BASE.plusDays(1), productoId)).isEqualTo(23);
+        assertThat(stockEn(LocalDateTime.now(), productoId)).isEqualTo(19);
+
+        // Anular el ingreso dejaria el stock negativo.
+        enviar(delete("/api/movimientos/" + ingresoId), "", 400);
+        assertThat(stockEnBase(productoId)).isEqualTo(19);
+        assertThat(stockEn(LocalDateTime.now(), productoId)).isEqualTo(19);
+    }
+
+    @Test
+    void conciliacionAlIniciarReconstruyeVentasAnterioresYAjustaElResto() throws Exception {
+        Long productoId = crearProducto("Kardex conciliacion");
+        // Una venta anterior al kardex (sin movimiento) y un stock cargado por fuera.
+        jdbcTemplate.update("update productos set stock = 30 where id = ?", productoId);
+        jdbcTemplate.update("insert into ventas (fecha, total, metodo_pago) values (?, 7400, 'EFECTIVO')", BASE);
+        Long ventaId = jdbcTemplate.queryForObject("select max(id) from ventas", Long.class);
+        jdbcTemplate.update("insert into detalles_venta (venta_id, producto_id, cantidad, precio_unitario, subtotal, "
+                + "costo_unitario) values (?, ?, 4, 1850, 7400, 1200)", ventaId, productoId);
+
+        // La conciliacion solo corre sobre un kardex sin cortes.
+        jdbcTemplate.update("delete from saldos_inventario");
+        kardexService.alIniciar();
+
+        assertThat(jdbcTemplate.queryForObject("select cantidad from movimientos where venta_id = ? and producto_id = ?",
+                Integer.class, ventaId, productoId)).isEqualTo(-4);
+        assertThat(jdbcTemplate.queryForObject("select cantidad from movimientos where id = ?", Integer.class,
+                movimientoId(productoId, MovimientoTipo.AJUSTE))).isEqualTo(34);
+        assertThat(stockEn(LocalDateTime.now(), productoId)).isEqualTo(30);
+        assertThat(cortes(productoId)).containsExactly(LocalDate.now().atStartOfDay());
+    }
+
+    /**
+     * Producto con ingreso de 20 en BASE + 10 h, salida de 2 justo en el corte de BASE + 1 dia, salida de 4 en
+     * BASE + 2 dias 12 h y ajuste de -3 en BASE + 4 dias 9 h, con cortes en BASE + 1 dia (18) y BASE + 3 dias (14).
+     * El stock del producto queda en 11, igual que la suma del kardex.
+     */
+    private Long productoConHistoria(String nombre) throws Exception {
+        Long productoId = crearProducto(nombre);
+        transactionTemplate.executeWithoutResult(estado -> {
+            movimientoService.registrar(List.of(
+                    new MovimientoService.Asiento(productoId, 20, MovimientoTipo.INGRESO, null, BASE.plusHours(10), null),
+                    new MovimientoService.Asiento(productoId, -2, MovimientoTipo.AJUSTE, null, BASE.plusDays(1), null)));
+            jdbcTemplate.update("update productos set stock = 18 where id = ?", productoId);
+        });
+        kardexService.tomarCortes(BASE.plusDays(1));
+        transactionTemplate.executeWithoutResult(estado -> {
+            movimientoService.registrar(List.of(
+                    new MovimientoService.Asiento(productoId, -4, MovimientoTipo.AJUSTE, null, BASE.plusDays(2).plusHours(12), null)));
+            jdbcTemplate.update("update productos set stock = 14 where id = ?", productoId);
+        });
+        kardexService.tomarCortes(BASE.plusDays(3));
+        transactionTemplate.executeWithoutResult(estado -> {
+            movimientoService.registrar(List.of(
+                    new MovimientoService.Asiento(productoId, -3, MovimientoTipo.AJUSTE, null, BASE.plusDays(4).plusHours(9), null)));
+            jdbcTemplate.update("update productos set stock = 11 where id = ?", productoId);
+        });
+        assertThat(cortes(productoId)).containsExactly(BASE.plusDays(1), BASE.plusDays(3));
+        return productoId;
+    }
+
+    // Sin stock inicial, para que el alta no deje un ingreso con la fecha de hoy.
+    private Long crearProducto(String nombre) throws Exception {
+        return leer(enviar(post("/api/productos"), """
+                {"nombre": "%s", "categoria": "Pruebas", "precioCompra": 1200, "precioVenta": 1850,
+                 "stock": 0}""".formatted(nombre), 201)).path("id").asLong();
+    }
+
+    private int stockEn(LocalDateTime fecha, Long productoId) {
+        return kardexService.stockEn(fecha, productoId).get(0).getStock();
+    }
+
+    private Long movimientoId(Long productoId, MovimientoTipo tipo) {
+        return jdbcTemplate.queryForObject("select id from movimientos where producto_id = ? and tipo = ?",
+                Long.class, productoId, tipo.name());
+    }
+
+    private int stockEnBase(Long productoId) {
+        return jdbcTemplate.queryForObject("select stock from productos where id = ?", Integer.class, productoId);
+    }
+
+    private List<LocalDateTime> cortes(Long productoId) {
+        return jdbcTemplate.queryForList("select fecha from saldos_inventario where producto_id = ? order by fecha",
+                LocalDateTime.class, productoId);
+    }
+
+    private String enviar(MockHttpServletRequestBuilder peticion, String cuerpo, int estado) throws Exception {
+        return mockMvc.perform(peticion.contentType(MediaType.APPLICATION_JSON).content(cuerpo))
+                .andExpect(status().is(estado))
+                .andReturn().getResponse().getContentAsString();
+    }
+
+    private JsonNode leer(String contenido) throws Exception {
+        return objectMapper.readTree(contenido);
+    }
+}
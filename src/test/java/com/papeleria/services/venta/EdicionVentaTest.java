@@ -0,0 +1,152 @@
+package com.papeleria.services.venta;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+/**
+ * Edicion de una venta como diferencia por producto: lineas que se agregan, se quitan o cambian de cantidad, con
+ * el stock, los movimientos EDICION_VENTA y los resumenes diarios que deja cada caso.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class EdicionVentaTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void agregaQuitaYCambiaLineasComoDiferencia() throws Exception {
+        Long cuaderno = crearProducto("Edicion cuaderno", "1000", "2000");
+        Long lapiz = crearProducto("Edicion lapiz", "300", "500");
+        Long regla = crearProducto("Edicion regla", "800", "1500");
+
+        Long ventaId = leer(enviar(post("/api/ventas"), venta(cuaderno, 2, lapiz, 3), 201)).path("id").asLong();
+        Long lineaCuaderno = jdbcTemplate.queryForObject(
+                "select id from detalles_venta where venta_id = ? and producto_id = ?", Long.class, ventaId, cuaderno);
+        Map<String, Object> resumenAntes = resumenVentas();
+
+        // El cuaderno sube de precio despues de la venta: la linea que se conserva no cambia de precio ni costo.
+        enviar(put("/api/productos/" + cuaderno), """
+                {"nombre": "Edicion cuaderno", "categoria": "Pruebas", "precioCompra": 1300, "precioVenta": 2500,
+                 "stock": 98}""", 200);
+
+        JsonNode editada = leer(enviar(put("/api/ventas/" + ventaId), venta(cuaderno, 5, regla, 1), 200));
+
+        assertThat(editada.path("total").decimalValue()).isEqualByComparingTo("11500");
+        Map<String, Object> lineaEditada = jdbcTemplate.queryForMap(
+                "select id, cantidad, precio_unitario, costo_unitario, subtotal from detalles_venta "
+                        + "where venta_id = ? and producto_id = ?", ventaId, cuaderno);
+        assertThat(lineaEditada.get("id")).isEqualTo(lineaCuaderno);
+        assertThat(lineaEditada.get("cantidad")).isEqualTo(5);
+        assertThat((BigDecimal) lineaEditada.get("precio_unitario")).isEqualByComparingTo("2000");
+        assertThat((BigDecimal) lineaEditada.get("costo_unitario")).isEqualByComparingTo("1000");
+        assertThat((BigDecimal) lineaEditada.get("subtotal")).isEqualByComparingTo("10000");
+        // La linea quitada se borra (orphanRemoval) y la nueva toma el precio actual.
+        assertThat(jdbcTemplate.queryForList("select producto_id from detalles_venta where venta_id = ? order by producto_id",
+                Long.class, ventaId)).containsExactly(cuaderno, regla);
+
+        assertThat(stock(cuaderno)).isEqualTo(95);
+        assertThat(stock(lapiz)).isEqualTo(100);
+        assertThat(stock(regla)).isEqualTo(99);
+
+        Map<Long, Integer> edicion = new HashMap<>();
+        jdbcTemplate.query("select producto_id, cantidad from movimientos where venta_id = ? and tipo = 'EDICION_VENTA'",
+                fila -> {
+                    edicion.put(fila.getLong("producto_id"), fila.getInt("cantidad"));
+                }, ventaId);
+        assertThat(edicion).containsOnly(Map.entry(cuaderno, -3), Map.entry(lapiz, 3), Map.entry(regla, -1));
+
+        assertThat(resumenProducto(cuaderno)).containsEntry("unidades", 5L).containsEntry("cantidad_ventas", 1L);
+        assertThat((BigDecimal) resumenProducto(cuaderno).get("ingresos")).isEqualByComparingTo("10000");
+        assertThat((BigDecimal) resumenProducto(cuaderno).get("costo")).isEqualByComparingTo("5000");
+        assertThat(resumenProducto(lapiz)).containsEntry("unidades", 0L).containsEntry("cantidad_ventas", 0L);
+        assertThat((BigDecimal) resumenProducto(lapiz).get("ingresos")).isEqualByComparingTo("0");
+        assertThat(resumenProducto(regla)).containsEntry("unidades", 1L).containsEntry("cantidad_ventas", 1L);
+        assertThat((BigDecimal) resumenProducto(regla).get("costo")).isEqualByComparingTo("800");
+
+        // La venta sigue contando una vez; el total del dia cambia solo por la diferencia (11500 - 5500).
+        Map<String, Object> resumenDespues = resumenVentas();
+        assertThat(resumenDespues.get("cantidad_ventas")).isEqualTo(resumenAntes.get("cantidad_ventas"));
+        assertThat(((BigDecimal) resumenDespues.get("total")).subtract((BigDecimal) resumenAntes.get("total")))
+                .isEqualByComparingTo("6000");
+    }
+
+    @Test
+    void sinStockParaLaDiferenciaNoCambiaNada() throws Exception {
+        Long cuaderno = crearProducto("Edicion cuaderno sin stock", "1000", "2000");
+        Long ventaId = leer(enviar(post("/api/ventas"), venta(cuaderno, 2), 201)).path("id").asLong();
+
+        enviar(put("/api/ventas/" + ventaId), venta(cuaderno, 103), 400);
+
+        assertThat(stock(cuaderno)).isEqualTo(98);
+        assertThat(jdbcTemplate.queryForObject("select cantidad from detalles_venta where venta_id = ?", Integer.class, ventaId))
+                .isEqualTo(2);
+        assertThat(jdbcTemplate.queryForObject("select count(*) from movimientos where venta_id = ? and tipo = 'EDICION_VENTA'",
+                Integer.class, ventaId)).isZero();
+    }
+
+    private Long crearProducto(String nombre, String precioCompra, String precioVenta) throws Exception {
+        return leer(enviar(post("/api/productos"), """
+                {"nombre": "%s", "categoria": "Pruebas", "precioCompra": %s, "precioVenta": %s,
+                 "stock": 100}""".formatted(nombre, precioCompra, precioVenta), 201)).path("id").asLong();
+    }
+
+    // Pares producto, cantidad.
+    private String venta(Object... lineas) {
+        StringBuilder detalles = new StringBuilder();
+        for (int i = 0; i < lineas.length; i += 2) {
+            detalles.append(i == 0 ? "" : ",")
+                    .append("{\"productoId\": ").append(lineas[i]).append(", \"cantidad\": ").append(lineas[i + 1]).append("}");
+        }
+        return "{\"metodoPago\": \"EFECTIVO\", \"detalles\": [" + detalles + "]}";
+    }
+
+    private int stock(Long productoId) {
+        return jdbcTemplate.queryForObject("select stock from productos where id = ?", Integer.class, productoId);
+    }
+
+    private Map<String, Object> resumenProducto(Long productoId) {
+        return jdbcTemplate.queryForMap("select unidades, ingresos, costo, cantidad_ventas from resumen_productos_diario "
+                + "where fecha = ? and producto_id = ? and metodo_pago = 'EFECTIVO'", LocalDate.now(), productoId);
+    }
+
+    private Map<String, Object> resumenVentas() {
+        return jdbcTemplate.queryForMap("select cantidad_ventas, total from resumen_ventas_diario "
+                + "where fecha = ? and metodo_pago = 'EFECTIVO'", LocalDate.now());
+    }
+
+    private String enviar(MockHttpServletRequestBuilder peticion, String cuerpo, int estado) throws Exception {
+        return mockMvc.perform(peticion.contentType(MediaType.APPLICATION_JSON).content(cuerpo))
+                .andExpect(status().is(estado))
+                .andReturn().getResponse().getContentAsString();
+    }
+
+    private JsonNode leer(String contenido) throws Exception {
+        return objectMapper.readTree(contenido);
+    }
+}
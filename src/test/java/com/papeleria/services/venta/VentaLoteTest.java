@@ -0,0 +1,140 @@
+package com.papeleria.services.venta;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mockingDetails;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.papeleria.repositories.VentaRepository;
+import java.time.LocalDateTime;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.mockito.stubbing.Answer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+/**
+ * Sincronizacion de ventas fuera de linea por POST /api/ventas/lote, con bloques de 2 ventas para que cada lote
+ * de prueba se reparta en varios: reenvios del mismo idCliente, ventas sin stock dentro de un bloque y el
+ * reintento venta por venta cuando otro envio registro alguna entre la consulta y el insert.
+ */
+@SpringBootTest(properties = {
+        "papeleria.ventas.lote.tamano-bloque=2",
+        "spring.datasource.url=jdbc:h2:mem:lotes;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1"})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class VentaLoteTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @SpyBean
+    private VentaRepository ventaRepository;
+
+    @Test
+    void reenviarElMismoLoteNoDuplicaVentas() throws Exception {
+        Long productoId = crearProducto("Lote reenvio", 50);
+        String lote = lote(productoId, "reenvio-1", 2, "reenvio-2", 3, "reenvio-3", 1, "reenvio-1", 2);
+
+        JsonNode primero = enviar(lote);
+        assertThat(primero.path("registradas").asInt()).isEqualTo(3);
+        // El idCliente repetido dentro del mismo lote se descarta sin tocar la base.
+        assertThat(primero.path("duplicadas").asInt()).isEqualTo(1);
+        assertThat(primero.path("resultados").get(3).path("estado").asText()).isEqualTo("DUPLICADA");
+        assertThat(stock(productoId)).isEqualTo(44);
+
+        JsonNode segundo = enviar(lote);
+        assertThat(segundo.path("registradas").asInt()).isZero();
+        assertThat(segundo.path("duplicadas").asInt()).isEqualTo(4);
+        for (int i = 0; i < 3; i++) {
+            assertThat(segundo.path("resultados").get(i).path("ventaId").asLong())
+                    .isEqualTo(primero.path("resultados").get(i).path("ventaId").asLong());
+        }
+        assertThat(stock(productoId)).isEqualTo(44);
+        assertThat(jdbcTemplate.queryForObject("select count(*) from ventas where id_cliente like 'reenvio-%'", Integer.class))
+                .isEqualTo(3);
+    }
+
+    @Test
+    void unaVentaSinStockSeRechazaSinFrenarElBloque() throws Exception {
+        Long productoId = crearProducto("Lote sin stock", 10);
+
+        // Bloques [faltante-1, faltante-2] y [faltante-3, faltante-4]: la segunda ya no encuentra las 6 unidades
+        // que pide porque la primera se llevo 5 en el mismo bloque.
+        JsonNode respuesta = enviar(lote(productoId, "faltante-1", 5, "faltante-2", 6, "faltante-3", 4, "faltante-4", 2));
+
+        assertThat(respuesta.path("resultados").findValuesAsText("estado"))
+                .containsExactly("REGISTRADA", "RECHAZADA", "REGISTRADA", "RECHAZADA");
+        assertThat(respuesta.path("resultados").get(1).path("mensaje").asText())
+                .contains("disponible: 5, solicitado: 6");
+        assertThat(stock(productoId)).isEqualTo(1);
+        assertThat(jdbcTemplate.queryForObject("select coalesce(sum(cantidad), 0) from movimientos "
+                + "where producto_id = ? and tipo = 'VENTA'", Integer.class, productoId)).isEqualTo(-9);
+    }
+
+    @Test
+    void unaVentaRegistradaPorOtroEnvioQuedaComoDuplicada() throws Exception {
+        Long productoId = crearProducto("Lote concurrente", 20);
+        enviar(lote(productoId, "concurrente-1", 2));
+
+        // El otro envio confirma despues de la consulta de existentes: el insert choca con uk_ventas_id_cliente y el
+        // bloque se reintenta venta por venta. El repositorio es un proxy JDK, asi que el espia delega en el bean real
+        // con su respuesta por defecto en lugar de llamar al metodo real.
+        Answer<?> real = mockingDetails(ventaRepository).getMockCreationSettings().getDefaultAnswer();
+        doReturn(List.of()).doAnswer(real).when(ventaRepository).findIdsByIdClienteIn(anyCollection());
+        JsonNode respuesta = enviar(lote(productoId, "concurrente-1", 2, "concurrente-2", 3));
+
+        assertThat(respuesta.path("resultados").findValuesAsText("estado")).containsExactly("DUPLICADA", "REGISTRADA");
+        assertThat(stock(productoId)).isEqualTo(15);
+        assertThat(jdbcTemplate.queryForObject("select count(*) from ventas where id_cliente like 'concurrente-%'",
+                Integer.class)).isEqualTo(2);
+    }
+
+    private Long crearProducto(String nombre, int stock) throws Exception {
+        String producto = mockMvc.perform(post("/api/productos").contentType(MediaType.APPLICATION_JSON).content("""
+                        {"nombre": "%s", "categoria": "Pruebas", "precioCompra": 1000, "precioVenta": 2000,
+                         "stock": %d}""".formatted(nombre, stock)))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(producto).path("id").asLong();
+    }
+
+    // Pares idCliente, cantidad; todas del mismo producto y con la fecha de ayer.
+    private String lote(Long productoId, Object... ventas) {
+        StringBuilder cuerpo = new StringBuilder();
+        for (int i = 0; i < ventas.length; i += 2) {
+            cuerpo.append(i == 0 ? "" : ",").append("""
+                    {"idCliente": "%s", "fecha": "%s", "metodoPago": "EFECTIVO",
+                     "detalles": [{"productoId": %d, "cantidad": %s}]}""".formatted(
+                    ventas[i], LocalDateTime.now().minusDays(1).withNano(0), productoId, ventas[i + 1]));
+        }
+        return "{\"ventas\": [" + cuerpo + "]}";
+    }
+
+    private JsonNode enviar(String lote) throws Exception {
+        return objectMapper.readTree(mockMvc.perform(post("/api/ventas/lote")
+                        .contentType(MediaType.APPLICATION_JSON).content(lote))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString());
+    }
+
+    private int stock(Long productoId) {
+        return jdbcTemplate.queryForObject("select stock from productos where id = ?", Integer.class, productoId);
+    }
+}